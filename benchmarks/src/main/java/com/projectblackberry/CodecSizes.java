@@ -0,0 +1,43 @@
+package com.projectblackberry;
+
+import com.projectblackberry.model.WeeklyChecklist;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Encoded size of a week per on-disk codec; the time each takes is SerializationBench's job.
+// Usage: java -cp target/benchmarks.jar com.projectblackberry.CodecSizes [tasks-per-day...] [week file...]
+public class CodecSizes {
+    public static void main(String[] args) throws Exception {
+        Map<String, WeeklyChecklist> weeks = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (arg.matches("\\d+")) {
+                weeks.put(arg + " tasks/day", Fixtures.week(Integer.parseInt(arg)));
+            } else {
+                Path file = Paths.get(arg);
+                weeks.put(file.getFileName().toString(), ChecklistCodec.decodeAny(Files.readAllBytes(file)));
+            }
+        }
+        if (weeks.isEmpty()) {
+            for (int tasksPerDay : new int[] {3, 20, 100, 500}) {
+                weeks.put(tasksPerDay + " tasks/day", Fixtures.week(tasksPerDay));
+            }
+        }
+
+        System.out.printf("%-28s", "week");
+        for (ChecklistCodec codec : ChecklistCodec.values()) {
+            System.out.printf(" %10s", codec.name().toLowerCase());
+        }
+        System.out.println();
+        for (Map.Entry<String, WeeklyChecklist> week : weeks.entrySet()) {
+            System.out.printf("%-28s", week.getKey());
+            for (ChecklistCodec codec : ChecklistCodec.values()) {
+                System.out.printf(" %10d", codec.encode(week.getValue()).length);
+            }
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.projectblackberry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Escaping of the values on a page. The checklist page writes them through Template's TEXT and JS
+// slots, measured first and then encoded straight into the page bytes; escapeHtml is what the
+// StringBuilder-built pages (stats, search) still use.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EscapeBench {
+    @Param({"plain", "markup", "unicode"})
+    public String text;
+
+    private String input;
+
+    @Setup
+    public void setup() {
+        switch (text) {
+            case "plain" -> input = "Review lecture notes for the midterm exam";
+            case "markup" -> input = "Problem set 4 <graphs & trees> \"due\" Friday's lab";
+            default -> input = "Café study group – bring flashcards ✅";
+        }
+    }
+
+    // what TemplateOutput.Measure and Bytes do with one slot
+    @Benchmark
+    public byte[] textSlot() {
+        return encode(Template.Kind.TEXT);
+    }
+
+    @Benchmark
+    public byte[] jsSlot() {
+        return encode(Template.Kind.JS);
+    }
+
+    private byte[] encode(Template.Kind kind) {
+        byte[] bytes = new byte[Template.encodedLength(input, kind)];
+        Template.encode(input, kind, bytes, 0);
+        return bytes;
+    }
+
+    @Benchmark
+    public String escapeHtml() {
+        return ChecklistRenderer.escapeHtml(input);
+    }
+}
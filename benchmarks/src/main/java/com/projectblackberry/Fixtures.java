@@ -0,0 +1,49 @@
+package com.projectblackberry;
+
+import com.projectblackberry.model.DayChecklist;
+import com.projectblackberry.model.ResourceLink;
+import com.projectblackberry.model.TaskItem;
+import com.projectblackberry.model.WeeklyChecklist;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Synthetic weeks for the benchmarks: 7 days x tasksPerDay tasks, with the mix of plain text,
+// characters that need escaping and non-ASCII that real plans have. Seeded, so every run is the same.
+final class Fixtures {
+    private static final String[] PRIORITIES = {"CRITICAL", "HIGH", "MEDIUM", "LOW"};
+    private static final String[] DESCRIPTIONS = {
+            "Review lecture notes",
+            "Problem set 4 <graphs & trees>",
+            "Read \"Designing Data-Intensive Applications\" ch. 5",
+            "Café study group – bring flashcards",
+            "Lab report: results, discussion & references",
+            "Practice interview questions (arrays/strings)"
+    };
+
+    private Fixtures() {
+    }
+
+    static WeeklyChecklist week(int tasksPerDay) {
+        Random random = new Random(tasksPerDay);
+        Map<String, DayChecklist> days = new LinkedHashMap<>();
+        LocalDate date = LocalDate.of(2025, 12, 29);
+        for (int d = 0; d < 7; d++, date = date.plusDays(1)) {
+            List<TaskItem> tasks = new ArrayList<>(tasksPerDay);
+            for (int t = 1; t <= tasksPerDay; t++) {
+                tasks.add(new TaskItem(String.valueOf(t), DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)] + " #" + t,
+                        random.nextInt(3) == 0, (15 * (1 + random.nextInt(8))) + "m", PRIORITIES[random.nextInt(PRIORITIES.length)]));
+            }
+            days.put(date.toString(), new DayChecklist(date.toString(), tasks, (1 + random.nextInt(6)) + "h"));
+        }
+        List<ResourceLink> resources = new ArrayList<>();
+        for (int r = 1; r <= 8; r++) {
+            resources.add(new ResourceLink("Reference " + r, "https://example.com/docs?page=" + r + "&lang=en", "Docs"));
+        }
+        return new WeeklyChecklist("2025-W1", days, resources);
+    }
+}
@@ -0,0 +1,48 @@
+package com.projectblackberry;
+
+import com.projectblackberry.model.WeeklyChecklist;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+// The checklist page: rendered into an exactly sized byte[] (cached path) and streamed (large weeks)
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBench {
+    // 7 days x 3 tasks = 21 tasks ... 7 days x 500 = 3500 tasks
+    @Param({"3", "20", "100", "500"})
+    public int tasksPerDay;
+
+    private WeeklyChecklist checklist;
+
+    @Setup
+    public void setup() {
+        checklist = Fixtures.week(tasksPerDay);
+    }
+
+    @Benchmark
+    public byte[] renderToBytes() {
+        return ChecklistRenderer.renderToBytes(checklist);
+    }
+
+    @Benchmark
+    public void renderStreaming() throws IOException {
+        ChecklistRenderer.stream(checklist, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,58 @@
+package com.projectblackberry;
+
+import com.projectblackberry.model.WeeklyChecklist;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+// The Jackson round trip ChecklistStorage does on every save and load, per on-disk codec
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBench {
+    @Param({"3", "20", "100", "500"})
+    public int tasksPerDay;
+
+    @Param({"JSON", "SMILE"})
+    public ChecklistCodec codec;
+
+    // a week file (either codec) to measure instead of the synthetic week, e.g.
+    // -p file=../data/weekly-plan-2025-W1.json -p tasksPerDay=0
+    @Param({""})
+    public String file;
+
+    private WeeklyChecklist checklist;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        checklist = file.isEmpty() ? Fixtures.week(tasksPerDay) : ChecklistCodec.decodeAny(Files.readAllBytes(Paths.get(file)));
+        encoded = codec.encode(checklist);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return codec.encode(checklist);
+    }
+
+    @Benchmark
+    public WeeklyChecklist parse() throws IOException {
+        return codec.decode(encoded);
+    }
+}
@@ -0,0 +1,45 @@
+package com.projectblackberry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-day and per-request helpers: the day heading date label and query string parsing
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilityBench {
+    public String date = "2025-12-29";
+    public String query = "from=2025-W1&to=2025-W12&page=2&q=graph%20theory";
+
+    @Benchmark
+    public String formatDate() {
+        return ChecklistRenderer.formatDate(date);
+    }
+
+    @Benchmark
+    public String getQueryParamFirst() {
+        return ServerMain.getQueryParam(query, "from");
+    }
+
+    @Benchmark
+    public String getQueryParamEncoded() {
+        return ServerMain.getQueryParam(query, "q");
+    }
+
+    @Benchmark
+    public String getQueryParamMissing() {
+        return ServerMain.getQueryParam(query, "week");
+    }
+}
@@ -2,8 +2,25 @@
 
 # Import weekly checklist script
 # Usage: ./import-weekly.sh [week-id]
+#        ./import-weekly.sh --all     (every data/weekly-plan-*.json in one request)
 # Example: ./import-weekly.sh 2025-W1
 
+if [ "$1" = "--all" ]; then
+    shopt -s nullglob
+    FILES=(data/weekly-plan-*.json)
+    if [ ${#FILES[@]} -eq 0 ]; then
+        echo "Error: no data/weekly-plan-*.json files found"
+        exit 1
+    fi
+    echo "Importing ${#FILES[@]} weekly plan(s) in one request"
+    # the files are simply concatenated: the server reads any sequence of JSON objects
+    cat "${FILES[@]}" | curl -X POST "http://localhost:8080/import" \
+      -H "Content-Type: application/x-ndjson" \
+      --data-binary @-
+    echo ""
+    exit 0
+fi
+
 WEEK="${1:-2025-W1}"
 JSON_FILE="data/weekly-plan-${WEEK}.json"
 
@@ -0,0 +1,154 @@
+package com.projectblackberry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Results of one load test run: per endpoint request count, throughput, error rate, status codes
+// and latency percentiles. Saved as JSON together with the options and the JVM, so runs of
+// different versions (or configurations) can be put side by side with baseline=<file>.
+public class LoadReport {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] QUANTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    // what the clients record into; status 0 is a request that failed without an HTTP answer
+    static class Recorder {
+        final LatencyHistogram[] latency = new LatencyHistogram[LoadTest.ENDPOINTS.size()];
+        final LongAdder[] errors = new LongAdder[LoadTest.ENDPOINTS.size()];
+        final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        Recorder() {
+            for (int i = 0; i < latency.length; i++) {
+                latency[i] = new LatencyHistogram();
+                errors[i] = new LongAdder();
+            }
+        }
+
+        void record(int endpoint, int status, long nanos) {
+            latency[endpoint].recordNanos(nanos);
+            if (status == 0 || status >= 400) {
+                errors[endpoint].increment();
+            }
+            statuses.computeIfAbsent(LoadTest.ENDPOINTS.get(endpoint) + ":" + status, k -> new LongAdder()).increment();
+        }
+    }
+
+    private final ObjectNode root;
+
+    LoadReport(Map<String, String> options, Recorder recorder, double seconds) {
+        root = objectMapper.createObjectNode();
+        root.put("timestamp", Instant.now().toString());
+        root.put("java", System.getProperty("java.version"));
+        root.put("cores", Runtime.getRuntime().availableProcessors());
+        root.put("seconds", round(seconds));
+        ObjectNode opts = root.putObject("options");
+        options.forEach(opts::put);
+
+        ObjectNode endpoints = root.putObject("endpoints");
+        long allRequests = 0;
+        long allErrors = 0;
+        for (int i = 0; i < LoadTest.ENDPOINTS.size(); i++) {
+            LatencyHistogram histogram = recorder.latency[i];
+            long requests = histogram.getCount();
+            if (requests == 0) continue;
+            long errors = recorder.errors[i].sum();
+            allRequests += requests;
+            allErrors += errors;
+
+            String name = LoadTest.ENDPOINTS.get(i);
+            ObjectNode node = endpoints.putObject(name);
+            node.put("requests", requests);
+            node.put("throughput", round(requests / seconds));
+            node.put("errors", errors);
+            node.put("errorRate", round((double) errors / requests));
+            ObjectNode latency = node.putObject("latencyMs");
+            latency.put("mean", round(histogram.getSumMicros() / 1000.0 / requests));
+            long[] percentiles = histogram.percentiles(QUANTILES);
+            for (int q = 0; q < QUANTILES.length; q++) {
+                latency.put(QUANTILE_NAMES[q], round(percentiles[q] / 1000.0));
+            }
+            latency.put("max", round(histogram.getMaxMicros() / 1000.0));
+            ObjectNode statuses = node.putObject("statuses");
+            new TreeMap<>(recorder.statuses).forEach((key, count) -> {
+                if (key.startsWith(name + ":")) {
+                    statuses.put(key.substring(name.length() + 1), count.sum());
+                }
+            });
+        }
+        ObjectNode total = root.putObject("total");
+        total.put("requests", allRequests);
+        total.put("throughput", round(allRequests / seconds));
+        total.put("errors", allErrors);
+        total.put("errorRate", allRequests == 0 ? 0 : round((double) allErrors / allRequests));
+    }
+
+    private LoadReport(ObjectNode root) {
+        this.root = root;
+    }
+
+    static LoadReport read(Path file) throws IOException {
+        return new LoadReport((ObjectNode) objectMapper.readTree(file.toFile()));
+    }
+
+    void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), root);
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-10s %9s %9s %7s %8s %8s %8s %8s %8s%n",
+                "endpoint", "requests", "req/s", "err %", "mean ms", "p50", "p99", "p999", "max");
+        for (Iterator<Map.Entry<String, JsonNode>> it = root.get("endpoints").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> entry = it.next();
+            JsonNode node = entry.getValue();
+            JsonNode latency = node.get("latencyMs");
+            out.printf("%-10s %9d %9.1f %7.2f %8.2f %8.2f %8.2f %8.2f %8.2f%n", entry.getKey(),
+                    node.get("requests").asLong(), node.get("throughput").asDouble(), node.get("errorRate").asDouble() * 100,
+                    latency.get("mean").asDouble(), latency.get("p50").asDouble(), latency.get("p99").asDouble(),
+                    latency.get("p999").asDouble(), latency.get("max").asDouble());
+        }
+        JsonNode total = root.get("total");
+        out.printf("%-10s %9d %9.1f %7.2f%n", "total", total.get("requests").asLong(),
+                total.get("throughput").asDouble(), total.get("errorRate").asDouble() * 100);
+    }
+
+    // throughput and p99 against an earlier run; positive throughput and negative p99 are better
+    void compare(LoadReport baseline, PrintStream out) {
+        out.println("Compared with the run of " + baseline.root.path("timestamp").asText("?") + ":");
+        out.printf("%-10s %12s %12s%n", "endpoint", "req/s", "p99");
+        for (Iterator<Map.Entry<String, JsonNode>> it = root.get("endpoints").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> entry = it.next();
+            JsonNode before = baseline.root.path("endpoints").path(entry.getKey());
+            if (before.isMissingNode()) continue;
+            JsonNode now = entry.getValue();
+            out.printf("%-10s %12s %12s%n", entry.getKey(),
+                    change(before.get("throughput").asDouble(), now.get("throughput").asDouble()),
+                    change(before.path("latencyMs").get("p99").asDouble(), now.path("latencyMs").get("p99").asDouble()));
+        }
+        out.printf("%-10s %12s%n", "total",
+                change(baseline.root.path("total").get("throughput").asDouble(), root.get("total").get("throughput").asDouble()));
+    }
+
+    private static String change(double before, double now) {
+        if (before == 0) return "n/a";
+        return String.format("%+.1f%%", (now - before) / before * 100);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
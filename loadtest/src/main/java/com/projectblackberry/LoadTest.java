@@ -0,0 +1,313 @@
+package com.projectblackberry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// End-to-end load test. Starts the server in its own JVM (so its GC and JIT don't share a heap
+// with the clients) on a free port with a throwaway data directory, imports synthetic weeks
+// through /import, then lets `clients` threads hit the endpoints in the configured mix for
+// `duration` seconds after a warm-up. Each client is a closed loop: it sends its next request
+// when the previous one is answered, so the numbers are what fast clients see, not what a fixed
+// arrival rate would see once the server falls behind.
+//
+// Arguments are key=value:
+//   clients=16 duration=30 warmup=5 weeks=52 tasks=8
+//   mix=checklist:70,home:15,navigator:10,import:5
+//   jvm=-Xmx128m,-Dblackberry.executor=virtual   (server JVM options, comma separated)
+//   url=http://phone:8080                        (use a running server instead of starting one)
+//   out=target/loadtest-<time>.json baseline=<earlier result>.json
+public class LoadTest {
+    static final List<String> ENDPOINTS = List.of("checklist", "home", "navigator", "import");
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static volatile LoadReport.Recorder recorder;
+    private static volatile boolean running = true;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("clients", "16");
+        options.put("duration", "30");
+        options.put("warmup", "5");
+        options.put("weeks", "52");
+        options.put("tasks", "8");
+        options.put("mix", "checklist:70,home:15,navigator:10,import:5");
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        int clients = Integer.parseInt(options.get("clients"));
+        int duration = Integer.parseInt(options.get("duration"));
+        int warmup = Integer.parseInt(options.get("warmup"));
+        int[] mix = parseMix(options.get("mix"));
+
+        Path dataDir = Files.createTempDirectory("blackberry-loadtest");
+        String baseUrl = options.get("url");
+        Process server = null;
+        try {
+            if (baseUrl == null) {
+                int port = freePort();
+                server = startServer(port, dataDir, options.get("jvm"));
+                baseUrl = "http://localhost:" + port;
+            }
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            awaitReady(client, baseUrl, server);
+
+            List<String> weekIds = new ArrayList<>();
+            List<byte[]> bodies = new ArrayList<>();
+            seed(client, baseUrl, Integer.parseInt(options.get("weeks")), Integer.parseInt(options.get("tasks")), weekIds, bodies);
+            System.out.println("Seeded " + weekIds.size() + " week(s), " + clients + " client(s), "
+                    + warmup + " s warm-up, " + duration + " s measured");
+
+            recorder = new LoadReport.Recorder(); // thrown away after the warm-up
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                Client worker = new Client(client, baseUrl, mix, weekIds, bodies, new Random(i));
+                Thread thread = new Thread(worker, "load-client-" + i);
+                thread.setDaemon(true);
+                threads.add(thread);
+                thread.start();
+            }
+            Thread.sleep(TimeUnit.SECONDS.toMillis(warmup));
+            LoadReport.Recorder measured = new LoadReport.Recorder();
+            recorder = measured;
+            long started = System.nanoTime();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(duration));
+            recorder = new LoadReport.Recorder();
+            double seconds = (System.nanoTime() - started) / 1e9;
+            running = false;
+            for (Thread thread : threads) {
+                thread.join(10_000);
+            }
+
+            LoadReport report = new LoadReport(options, measured, seconds);
+            report.print(System.out);
+            Path out = Paths.get(options.getOrDefault("out", "target/loadtest-" + System.currentTimeMillis() + ".json"));
+            report.write(out);
+            System.out.println("Saved " + out);
+            if (options.containsKey("baseline")) {
+                report.compare(LoadReport.read(Paths.get(options.get("baseline"))), System.out);
+            }
+        } finally {
+            if (server != null) {
+                server.destroy(); // SIGTERM, so the shutdown hook flushes and exits cleanly
+                if (!server.waitFor(15, TimeUnit.SECONDS)) {
+                    server.destroyForcibly();
+                }
+            }
+            deleteRecursively(dataDir);
+        }
+    }
+
+    // one closed-loop client; the HttpClient (and its connection pool) is shared
+    private static class Client implements Runnable {
+        final HttpClient http;
+        final String baseUrl;
+        final int[] mix;
+        final List<String> weekIds;
+        final List<byte[]> bodies;
+        final Random random;
+
+        Client(HttpClient http, String baseUrl, int[] mix, List<String> weekIds, List<byte[]> bodies, Random random) {
+            this.http = http;
+            this.baseUrl = baseUrl;
+            this.mix = mix;
+            this.weekIds = weekIds;
+            this.bodies = bodies;
+            this.random = random;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                int endpoint = pick();
+                HttpRequest request = request(endpoint);
+                long started = System.nanoTime();
+                int status;
+                try {
+                    status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (IOException e) {
+                    status = 0;
+                } catch (InterruptedException e) {
+                    return;
+                }
+                recorder.record(endpoint, status, System.nanoTime() - started); // counts in the window it ends in
+            }
+        }
+
+        private int pick() {
+            int roll = random.nextInt(mix[mix.length - 1]);
+            for (int i = 0; i < mix.length; i++) {
+                if (roll < mix[i]) return i;
+            }
+            return 0;
+        }
+
+        private HttpRequest request(int endpoint) {
+            int week = random.nextInt(weekIds.size());
+            switch (ENDPOINTS.get(endpoint)) {
+                case "checklist":
+                    return get(baseUrl + "/checklist?week=" + weekIds.get(week));
+                case "home":
+                    return get(baseUrl + "/");
+                case "navigator":
+                    return get(baseUrl + "/navigator");
+                default:
+                    return HttpRequest.newBuilder(URI.create(baseUrl + "/import?week=" + weekIds.get(week)))
+                            .timeout(Duration.ofSeconds(30))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofByteArray(bodies.get(week)))
+                            .build();
+            }
+        }
+
+        // like a browser: compressed if the server wants to
+        private static HttpRequest get(String url) {
+            return HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Accept-Encoding", "gzip")
+                    .GET()
+                    .build();
+        }
+    }
+
+    // "checklist:70,home:15,..." -> cumulative weights in ENDPOINTS order
+    private static int[] parseMix(String spec) {
+        int[] weights = new int[ENDPOINTS.size()];
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split(":");
+            int index = ENDPOINTS.indexOf(kv[0]);
+            if (index < 0 || kv.length != 2) throw new IllegalArgumentException("Unknown mix entry: " + part);
+            weights[index] = Integer.parseInt(kv[1]);
+        }
+        for (int i = 1; i < weights.length; i++) {
+            weights[i] += weights[i - 1];
+        }
+        if (weights[weights.length - 1] <= 0) throw new IllegalArgumentException("Empty mix: " + spec);
+        return weights;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    // same classpath as ours, which has the server jar on it
+    private static Process startServer(int port, Path dataDir, String jvmOptions) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        if (jvmOptions != null && !jvmOptions.isBlank()) {
+            command.addAll(List.of(jvmOptions.split(",")));
+        }
+        command.add("-Dblackberry.port=" + port);
+        command.add("-Dblackberry.data.dir=" + dataDir);
+        command.add("-Dblackberry.log.access=off");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("com.projectblackberry.ServerMain");
+        File log = dataDir.resolveSibling(dataDir.getFileName() + ".log").toFile();
+        System.out.println("Starting server on port " + port + ", log: " + log);
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+    }
+
+    private static void awaitReady(HttpClient client, String baseUrl, Process server) throws Exception {
+        HttpRequest ping = HttpRequest.newBuilder(URI.create(baseUrl + "/")).timeout(Duration.ofSeconds(2)).build();
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (true) {
+            try {
+                if (client.send(ping, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) return;
+            } catch (IOException e) {
+                // not listening yet
+            }
+            if (server != null && !server.isAlive()) throw new IOException("Server exited with " + server.exitValue());
+            if (System.currentTimeMillis() > deadline) throw new IOException("Server not answering at " + baseUrl);
+            Thread.sleep(100);
+        }
+    }
+
+    // consecutive ISO weeks ending with the current one, imported one request each
+    private static void seed(HttpClient client, String baseUrl, int weeks, int tasksPerDay,
+                             List<String> weekIds, List<byte[]> bodies) throws Exception {
+        LocalDate monday = LocalDate.now().with(DayOfWeek.MONDAY).minusWeeks(weeks - 1L);
+        for (int w = 0; w < weeks; w++, monday = monday.plusWeeks(1)) {
+            String weekId = monday.get(IsoFields.WEEK_BASED_YEAR) + "-W" + monday.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+            byte[] body = weekJson(weekId, monday, tasksPerDay, new Random(w));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/import?week=" + weekId))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status != 200) throw new IOException("Import of " + weekId + " failed with " + status);
+            weekIds.add(weekId);
+            bodies.add(body);
+        }
+    }
+
+    private static final String[] LEVELS = {"LOW", "MEDIUM", "MEDIUM", "HIGH", "CRITICAL"};
+    private static final String[] SUBJECTS = {
+            "Linear algebra <ch. 3>", "Essay draft & outline", "\"Clean Code\" reading",
+            "Übungsblatt 2", "Flashcards – 40 words", "Mock exam (timed)", "Group call"
+    };
+
+    // a week in the JSON /import takes, built straight from a tree: the load test sends what a
+    // client would send and doesn't need the server's model. Text mixes plain words, characters
+    // that need escaping and non-ASCII.
+    private static byte[] weekJson(String weekId, LocalDate monday, int tasksPerDay, Random random) throws IOException {
+        ObjectNode week = objectMapper.createObjectNode().put("weekId", weekId);
+        ObjectNode days = week.putObject("days");
+        for (int d = 0; d < 7; d++) {
+            String date = monday.plusDays(d).toString();
+            ObjectNode day = days.putObject(date).put("date", date).put("plannedTime", (2 + random.nextInt(4)) + "h");
+            ArrayNode tasks = day.putArray("tasks");
+            for (int t = 1; t <= tasksPerDay; t++) {
+                tasks.addObject()
+                        .put("id", String.valueOf(t))
+                        .put("description", SUBJECTS[random.nextInt(SUBJECTS.length)] + ", part " + t)
+                        .put("completed", random.nextInt(4) == 0)
+                        .put("estimatedTime", (20 + 10 * random.nextInt(10)) + "m")
+                        .put("priority", LEVELS[random.nextInt(LEVELS.length)]);
+            }
+        }
+        ArrayNode resources = week.putArray("resources");
+        for (int r = 1; r <= 6; r++) {
+            resources.addObject().put("title", "Course page " + r).put("url", "https://example.org/course/" + r + "?tab=notes&v=2")
+                    .put("category", r % 2 == 0 ? "Lectures" : "Exercises");
+        }
+        return objectMapper.writeValueAsBytes(week);
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
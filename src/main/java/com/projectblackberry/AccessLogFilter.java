@@ -0,0 +1,71 @@
+package com.projectblackberry;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+// One line per request in Common Log Format plus the handler time, written through its own
+// AsyncLog to a rotating file. Shared by every context, so there is one queue and one file.
+// Event streams and parked polls end long after their handler returns and are left out.
+public class AccessLogFilter extends Filter {
+    private static final DateTimeFormatter CLF_TIME = DateTimeFormatter.ofPattern("dd/MMM/yyyy:HH:mm:ss Z", Locale.ROOT)
+            .withZone(ZoneId.systemDefault());
+
+    private final AsyncLog log;
+    private volatile CachedTime cachedTime = new CachedTime(0, "");
+
+    // the formatted timestamp only changes once a second, so don't format it per request
+    private static class CachedTime {
+        final long second;
+        final String text;
+
+        CachedTime(long second, String text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
+
+    public AccessLogFilter(AsyncLog log) {
+        this.log = log;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        long started = System.nanoTime();
+        CountingOutputStream out = CountingOutputStream.of(exchange);
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            if (!ChecklistEvents.isDetached(exchange)) {
+                long micros = (System.nanoTime() - started) / 1000;
+                InetSocketAddress remote = exchange.getRemoteAddress();
+                String line = (remote != null ? remote.getAddress().getHostAddress() : "-")
+                        + " - - [" + now() + "] \""
+                        + exchange.getRequestMethod() + ' ' + exchange.getRequestURI() + ' ' + exchange.getProtocol() + "\" "
+                        + exchange.getResponseCode() + ' ' + out.getCount() + ' ' + micros + "us";
+                log.log(Log.Level.INFO, line, null);
+            }
+        }
+    }
+
+    private String now() {
+        long second = System.currentTimeMillis() / 1000;
+        CachedTime cached = cachedTime;
+        if (cached.second != second) {
+            cached = new CachedTime(second, CLF_TIME.format(Instant.ofEpochSecond(second)));
+            cachedTime = cached;
+        }
+        return cached.text;
+    }
+
+    @Override
+    public String description() {
+        return "Writes an access log line per request";
+    }
+}
@@ -0,0 +1,183 @@
+package com.projectblackberry;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// A log channel: request threads drop entries into a bounded lock-free ring and return at once,
+// one background thread writes them to the sink. When the ring is full the entry is dropped and
+// counted; logging never blocks the caller.
+public class AsyncLog {
+    private static final long IDLE_PARK_NANOS = 50_000_000L;
+
+    public interface Sink {
+        void write(Entry entry) throws IOException;
+
+        // end of a batch; buffered sinks write out here
+        void flush() throws IOException;
+
+        default void close() throws IOException {
+            flush();
+        }
+    }
+
+    public static class Entry {
+        final long time;
+        final Log.Level level;
+        final String thread;
+        final String message;
+        final Throwable error;
+
+        Entry(Log.Level level, String message, Throwable error) {
+            this.time = System.currentTimeMillis();
+            this.level = level;
+            this.thread = Thread.currentThread().getName();
+            this.message = message;
+            this.error = error;
+        }
+
+        // Getters
+        public long getTime() { return time; }
+        public Log.Level getLevel() { return level; }
+        public String getThread() { return thread; }
+        public String getMessage() { return message; }
+        public Throwable getError() { return error; }
+    }
+
+    private final Ring ring;
+    private final Sink sink;
+    private final Thread writer;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private volatile boolean running = true;
+    private volatile boolean idle;
+
+    public AsyncLog(String name, int capacity, Sink sink) {
+        this.ring = new Ring(capacity);
+        this.sink = sink;
+        this.writer = new Thread(this::writeLoop, name);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public void log(Log.Level level, String message, Throwable error) {
+        if (!running || !ring.offer(new Entry(level, message, error))) {
+            dropped.increment();
+            return;
+        }
+        if (idle) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void writeLoop() {
+        while (running || !ring.isEmpty()) {
+            Entry entry = ring.poll();
+            if (entry != null) {
+                write(entry);
+                continue;
+            }
+            flushSink();
+            idle = true;
+            if (ring.isEmpty() && running) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            idle = false;
+        }
+        try {
+            sink.close();
+        } catch (IOException e) {
+            System.err.println("Log sink failed to close: " + e.getMessage());
+        }
+    }
+
+    private void write(Entry entry) {
+        try {
+            sink.write(entry);
+            written.increment();
+        } catch (IOException e) {
+            dropped.increment();
+        }
+    }
+
+    private void flushSink() {
+        try {
+            sink.flush();
+        } catch (IOException e) {
+            // nothing sensible to log to; the entries stay counted as written
+        }
+    }
+
+    // writes out what is queued and stops the writer thread
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Stats
+    public long getDroppedCount() { return dropped.sum(); }
+    public long getWrittenCount() { return written.sum(); }
+
+    // Bounded multi-producer, single-consumer ring (Vyukov): each slot carries a sequence number
+    // that says whose turn it is, so producers only contend on one CAS of the tail counter
+    private static class Ring {
+        private final int mask;
+        private final AtomicReferenceArray<Entry> slots;
+        private final AtomicLongArray sequences;
+        private final AtomicLong tail = new AtomicLong();
+        private volatile long head; // written by the consumer only
+
+        Ring(int capacity) {
+            int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+            this.mask = size - 1;
+            this.slots = new AtomicReferenceArray<>(size);
+            this.sequences = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        boolean offer(Entry entry) {
+            long pos = tail.get();
+            while (true) {
+                int index = (int) pos & mask;
+                long diff = sequences.get(index) - pos;
+                if (diff == 0) {
+                    if (tail.compareAndSet(pos, pos + 1)) {
+                        slots.lazySet(index, entry);
+                        sequences.set(index, pos + 1); // publishes the slot to the consumer
+                        return true;
+                    }
+                    pos = tail.get();
+                } else if (diff < 0) {
+                    return false; // full
+                } else {
+                    pos = tail.get(); // another producer took this slot
+                }
+            }
+        }
+
+        Entry poll() {
+            long pos = head;
+            int index = (int) pos & mask;
+            if (sequences.get(index) != pos + 1) return null;
+            Entry entry = slots.get(index);
+            slots.lazySet(index, null);
+            sequences.set(index, pos + mask + 1); // free for the producer one lap later
+            head = pos + 1;
+            return entry;
+        }
+
+        boolean isEmpty() {
+            return sequences.get((int) head & mask) != head + 1;
+        }
+    }
+}
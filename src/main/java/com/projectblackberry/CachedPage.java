@@ -0,0 +1,154 @@
+package com.projectblackberry;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.zip.Deflater;
+
+// A fully rendered response body together with the validators used for conditional GETs
+// and its compressed variants, so repeat hits never render or compress again
+public class CachedPage {
+    // distinguishes version-based ETags (and sync tokens) from the ones a previous run of the server handed out
+    static final String BOOT_ID = Long.toString(System.currentTimeMillis(), 36);
+    private static final long STARTED_AT = System.currentTimeMillis();
+
+    private final byte[] body;
+    private final String contentType;
+    private final String etag;
+    private final long lastModified; // epoch millis, truncated to seconds
+    private final String lastModifiedHeader;
+    private final int compressionLevel; // 0 = always sent uncompressed
+    // Both built up front, so size() is final by the time the page is counted in a cache. Deflate
+    // is rarely asked for, but building it later made PageCache under-count the pages that served it.
+    private final byte[] gzip;
+    private final byte[] deflate;
+
+    public CachedPage(byte[] body, String contentType, String etag, long lastModified) {
+        this(body, contentType, etag, lastModified, Compression.levelFor(contentType, body.length));
+    }
+
+    private CachedPage(byte[] body, String contentType, String etag, long lastModified, int compressionLevel) {
+        this.body = body;
+        this.contentType = contentType;
+        this.etag = etag;
+        this.lastModified = lastModified / 1000 * 1000;
+        this.lastModifiedHeader = httpDate(this.lastModified);
+        this.compressionLevel = compressionLevel;
+        this.gzip = compressionLevel > 0 ? smallerOrNull(Compression.compress(body, Compression.Encoding.GZIP, compressionLevel)) : null;
+        this.deflate = compressionLevel > 0 ? smallerOrNull(Compression.compress(body, Compression.Encoding.DEFLATE, compressionLevel)) : null;
+    }
+
+    // static pages: the ETag is a content hash, so it survives restarts
+    public static CachedPage html(String html) {
+        byte[] body = html.getBytes(StandardCharsets.UTF_8);
+        return new CachedPage(body, "text/html; charset=utf-8", contentEtag(body), STARTED_AT);
+    }
+
+    // static assets are compressed once for the life of the server, so at the best level
+    public static CachedPage asset(byte[] body, String contentType) {
+        int level = Compression.levelFor(contentType, body.length) > 0 ? Deflater.BEST_COMPRESSION : 0;
+        return new CachedPage(body, contentType, contentEtag(body), STARTED_AT, level);
+    }
+
+    // pages rendered from a checklist: the version already identifies the content
+    public static CachedPage versioned(byte[] body, String contentType, long version, long lastModified) {
+        return new CachedPage(body, contentType, versionEtag(version), lastModified);
+    }
+
+    public static String versionEtag(long version) {
+        return "\"v" + Long.toString(version, 36) + "-" + BOOT_ID + "\"";
+    }
+
+    static String httpDate(long epochMillis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(epochMillis).atZone(ZoneOffset.UTC));
+    }
+
+    private static String contentEtag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder sb = new StringBuilder("\"");
+            for (int i = 0; i < 8; i++) {
+                sb.append(String.format("%02x", digest[i]));
+            }
+            return sb.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // If-None-Match wins over If-Modified-Since when both are sent (RFC 7232 section 6)
+    static boolean isNotModified(HttpExchange exchange, String etag, long lastModified) {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            return etagMatches(ifNoneMatch, etag);
+        }
+        String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        if (ifModifiedSince != null) {
+            try {
+                long since = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                        .toInstant().toEpochMilli();
+                return lastModified / 1000 * 1000 <= since;
+            } catch (DateTimeParseException e) {
+                return false; // unparseable dates are ignored
+            }
+        }
+        return false;
+    }
+
+    private static boolean etagMatches(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2); // If-None-Match uses weak comparison
+            }
+            if (tag.equals("*") || tag.equals(etag) || stripEncoding(tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the client may hold any encoding of the same version; all of them are still current
+    private static String stripEncoding(String tag) {
+        for (Compression.Encoding encoding : Compression.Encoding.values()) {
+            String suffix = encoding.getEtagSuffix() + "\"";
+            if (tag.endsWith(suffix)) {
+                return tag.substring(0, tag.length() - suffix.length()) + "\"";
+            }
+        }
+        return tag;
+    }
+
+    public boolean isNotModified(HttpExchange exchange) {
+        return isNotModified(exchange, etag, lastModified);
+    }
+
+    private byte[] smallerOrNull(byte[] compressed) {
+        return compressed.length < body.length ? compressed : null;
+    }
+
+    // body for the negotiated encoding, or null if that variant isn't worth sending
+    public byte[] getBody(Compression.Encoding encoding) {
+        if (encoding == null) return body;
+        return encoding == Compression.Encoding.GZIP ? gzip : deflate;
+    }
+
+    // bytes held by this page, for cache accounting
+    public long size() {
+        return body.length + (gzip != null ? gzip.length : 0) + (deflate != null ? deflate.length : 0);
+    }
+
+    // Getters
+    public byte[] getBody() { return body; }
+    public String getContentType() { return contentType; }
+    public String getEtag() { return etag; }
+    public long getLastModified() { return lastModified; }
+    public String getLastModifiedHeader() { return lastModifiedHeader; }
+}
@@ -0,0 +1,292 @@
+package com.projectblackberry;
+
+import com.projectblackberry.model.DayChecklist;
+import com.projectblackberry.model.ResourceLink;
+import com.projectblackberry.model.TaskItem;
+import com.projectblackberry.model.WeeklyChecklist;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Bounded in-memory store of weekly checklists. Recency is plain LRU; on top of that a small
+// TinyLFU-style frequency sketch decides whether a freshly loaded week may push out the LRU victim,
+// so one pass over old weeks can't flush the weeks people actually use. Misses go to the loader
+// once per week no matter how many requests are waiting for it. Weeks are held by their int key
+// (WeekUtils.key) in a WeekTable, with the LRU order as links between the entries themselves.
+public class ChecklistCache {
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Function<String, WeeklyChecklist> loader;
+    private final WeekTable<Entry> entries;
+    private final Map<Integer, CompletableFuture<WeeklyChecklist>> loading = new ConcurrentHashMap<>();
+    private final FrequencySketch sketch;
+    private Entry eldest; // least recently used; evicted first
+    private Entry youngest;
+    private long totalBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    private static class Entry {
+        final int week;
+        final WeeklyChecklist checklist;
+        final long bytes;
+        Entry older;
+        Entry newer;
+
+        Entry(int week, WeeklyChecklist checklist) {
+            this.week = week;
+            this.checklist = checklist;
+            this.bytes = estimateBytes(checklist);
+        }
+    }
+
+    public ChecklistCache(int maxEntries, long maxBytes, Function<String, WeeklyChecklist> loader) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxBytes = maxBytes;
+        this.loader = loader;
+        this.entries = new WeekTable<>(Math.min(this.maxEntries, 4096));
+        this.sketch = new FrequencySketch(this.maxEntries);
+    }
+
+    // cached week, or whatever the loader returns for it (null if the week doesn't exist anywhere,
+    // or weekId isn't a week at all)
+    public WeeklyChecklist get(String weekId) {
+        int week = WeekUtils.key(weekId);
+        if (week == 0) return null;
+        sketch.increment(week);
+        WeeklyChecklist cached = getIfPresent(week);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        CompletableFuture<WeeklyChecklist> mine = new CompletableFuture<>();
+        CompletableFuture<WeeklyChecklist> existing = loading.putIfAbsent(week, mine);
+        if (existing != null) {
+            coalescedLoads.increment();
+            return join(existing);
+        }
+        try {
+            WeeklyChecklist loaded = loader.apply(weekId);
+            loads.increment();
+            if (loaded != null) {
+                admit(week, loaded);
+            }
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(week, mine);
+        }
+    }
+
+    public WeeklyChecklist getIfPresent(String weekId) {
+        return getIfPresent(WeekUtils.key(weekId));
+    }
+
+    public synchronized WeeklyChecklist getIfPresent(int week) {
+        Entry entry = entries.get(week);
+        if (entry == null) return null;
+        touch(entry);
+        return entry.checklist;
+    }
+
+    // the cached weeks from..to (WeekUtils keys) in week order; a look only, recency and hit counts stay as they are
+    public synchronized void forEachInRange(int from, int to, WeekTable.Visitor<? super WeeklyChecklist> visitor) {
+        entries.forEachInRange(from, to, (week, entry) -> visitor.visit(week, entry.checklist));
+    }
+
+    // explicit puts (imports, edits) always go in; only loads have to earn their place
+    public void put(String weekId, WeeklyChecklist checklist) {
+        int week = WeekUtils.key(weekId);
+        if (week == 0) {
+            Log.warn("Not caching " + weekId + ": not a week id");
+            return;
+        }
+        Entry entry = new Entry(week, checklist);
+        synchronized (this) {
+            Entry replaced = entries.put(week, entry);
+            if (replaced != null) {
+                unlink(replaced);
+                totalBytes -= replaced.bytes;
+            }
+            link(entry);
+            totalBytes += entry.bytes;
+            evictIfNeeded(entry);
+        }
+    }
+
+    private void admit(int week, WeeklyChecklist checklist) {
+        Entry entry = new Entry(week, checklist);
+        synchronized (this) {
+            if (entries.get(week) != null) return; // someone put a newer copy meanwhile
+            if (isFull(entry.bytes) && eldest != null) {
+                if (sketch.frequency(week) <= sketch.frequency(eldest.week)) {
+                    rejections.increment();
+                    return;
+                }
+            }
+            entries.put(week, entry);
+            link(entry);
+            totalBytes += entry.bytes;
+            evictIfNeeded(entry);
+        }
+    }
+
+    private boolean isFull(long incomingBytes) {
+        return entries.size() + 1 > maxEntries || totalBytes + incomingBytes > maxBytes;
+    }
+
+    private void evictIfNeeded(Entry keep) {
+        Entry victim = eldest;
+        while ((entries.size() > maxEntries || totalBytes > maxBytes) && victim != null) {
+            Entry newer = victim.newer;
+            if (victim != keep) {
+                entries.remove(victim.week);
+                unlink(victim);
+                totalBytes -= victim.bytes;
+                evictions.increment();
+            }
+            victim = newer;
+        }
+    }
+
+    // LRU list, eldest -> youngest; callers hold the lock
+    private void link(Entry entry) {
+        entry.older = youngest;
+        entry.newer = null;
+        if (youngest != null) {
+            youngest.newer = entry;
+        } else {
+            eldest = entry;
+        }
+        youngest = entry;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.older != null) {
+            entry.older.newer = entry.newer;
+        } else {
+            eldest = entry.newer;
+        }
+        if (entry.newer != null) {
+            entry.newer.older = entry.older;
+        } else {
+            youngest = entry.older;
+        }
+        entry.older = null;
+        entry.newer = null;
+    }
+
+    private void touch(Entry entry) {
+        if (entry != youngest) {
+            unlink(entry);
+            link(entry);
+        }
+    }
+
+    private static WeeklyChecklist join(CompletableFuture<WeeklyChecklist> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        }
+    }
+
+    // rough retained size: object headers plus two bytes per char, close enough for a budget. A task
+    // is a slot in its day's arrays, and its id and time are shared with other weeks; only the
+    // description may be its own.
+    static long estimateBytes(WeeklyChecklist checklist) {
+        long bytes = 400 + 2L * length(checklist.getWeekId());
+        for (DayChecklist day : checklist.getDays().values()) {
+            bytes += 300;
+            for (TaskItem task : day.getTasks()) {
+                bytes += 40 + 2L * length(task.getDescription());
+            }
+        }
+        for (ResourceLink resource : checklist.getResources()) {
+            bytes += 120 + 2L * (length(resource.getTitle()) + length(resource.getUrl()) + length(resource.getCategory()));
+        }
+        return bytes;
+    }
+
+    private static int length(String s) {
+        return s != null ? s.length() : 0;
+    }
+
+    // Stats
+    public synchronized int size() { return entries.size(); }
+    public synchronized long getEstimatedBytes() { return totalBytes; }
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getLoadCount() { return loads.sum(); }
+    public long getCoalescedLoadCount() { return coalescedLoads.sum(); }
+    public long getEvictionCount() { return evictions.sum(); }
+    public long getRejectionCount() { return rejections.sum(); }
+
+    // 4-bit count-min sketch with periodic halving, as in TinyLFU
+    private static class FrequencySketch {
+        private static final int[] SEEDS = {0x97cb3127, 0xb0d9a4e1, 0x7e3a1b55, 0xd6e8feb8};
+        private final byte[] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maxEntries) {
+            int size = Integer.highestOneBit(Math.max(16, maxEntries * 4) - 1) << 1;
+            this.counters = new byte[size];
+            this.mask = size - 1;
+            this.sampleSize = 10 * Math.max(16, maxEntries);
+        }
+
+        synchronized void increment(int week) {
+            int hash = spread(week);
+            for (int seed : SEEDS) {
+                int i = index(hash, seed);
+                if (counters[i] < 15) counters[i]++;
+            }
+            if (++additions >= sampleSize) {
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] >>= 1; // age everything so old popularity fades
+                }
+                additions /= 2;
+            }
+        }
+
+        synchronized int frequency(int week) {
+            int hash = spread(week);
+            int min = 15;
+            for (int seed : SEEDS) {
+                min = Math.min(min, counters[index(hash, seed)]);
+            }
+            return min;
+        }
+
+        private int index(int hash, int seed) {
+            int h = (hash ^ seed) * 0x9e3779b9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        private static int spread(int h) {
+            h ^= h >>> 17;
+            h *= 0xed5ad4bb;
+            return h ^ (h >>> 11);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.projectblackberry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.projectblackberry.model.WeeklyChecklist;
+
+import java.io.IOException;
+
+// On-disk formats for a week. Both go through the same Jackson bindings, so the model classes
+// don't care which one is used; files are recognised by their first bytes, not their name.
+public enum ChecklistCodec {
+    // pretty-printed, what the data directory has always held
+    JSON(".json") {
+        private final ObjectMapper mapper = new ObjectMapper();
+        private final ObjectWriter writer = mapper.writerWithDefaultPrettyPrinter();
+
+        @Override
+        public byte[] encode(WeeklyChecklist checklist) throws IOException {
+            return writer.writeValueAsBytes(checklist);
+        }
+
+        @Override
+        public WeeklyChecklist decode(byte[] data, int offset, int length) throws IOException {
+            return mapper.readValue(data, offset, length, WeeklyChecklist.class);
+        }
+    },
+    // binary JSON: back-references for repeated keys and short strings, no whitespace, no number parsing
+    SMILE(".sml") {
+        private final ObjectMapper mapper = new ObjectMapper(new SmileFactory());
+
+        @Override
+        public byte[] encode(WeeklyChecklist checklist) throws IOException {
+            return mapper.writeValueAsBytes(checklist);
+        }
+
+        @Override
+        public WeeklyChecklist decode(byte[] data, int offset, int length) throws IOException {
+            return mapper.readValue(data, offset, length, WeeklyChecklist.class);
+        }
+    };
+
+    // every Smile document starts with ":)\n"
+    private static final byte[] SMILE_MAGIC = {':', ')', '\n'};
+
+    private final String extension;
+
+    ChecklistCodec(String extension) {
+        this.extension = extension;
+    }
+
+    public abstract byte[] encode(WeeklyChecklist checklist) throws IOException;
+
+    public abstract WeeklyChecklist decode(byte[] data, int offset, int length) throws IOException;
+
+    public WeeklyChecklist decode(byte[] data) throws IOException {
+        return decode(data, 0, data.length);
+    }
+
+    public String getExtension() { return extension; }
+
+    public static ChecklistCodec detect(byte[] data, int offset, int length) {
+        if (length >= SMILE_MAGIC.length) {
+            boolean smile = true;
+            for (int i = 0; i < SMILE_MAGIC.length; i++) {
+                smile &= data[offset + i] == SMILE_MAGIC[i];
+            }
+            if (smile) return SMILE;
+        }
+        return JSON;
+    }
+
+    // reads whatever format the bytes are in
+    public static WeeklyChecklist decodeAny(byte[] data, int offset, int length) throws IOException {
+        return detect(data, offset, length).decode(data, offset, length);
+    }
+
+    public static WeeklyChecklist decodeAny(byte[] data) throws IOException {
+        return decodeAny(data, 0, data.length);
+    }
+
+    // the codec whose extension the file name ends with, or null for files that aren't weeks
+    public static ChecklistCodec forFileName(String filename) {
+        for (ChecklistCodec codec : values()) {
+            if (filename.endsWith(codec.extension)) return codec;
+        }
+        return null;
+    }
+}
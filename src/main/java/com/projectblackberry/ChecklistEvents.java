@@ -0,0 +1,382 @@
+package com.projectblackberry;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Fan-out of checklist change events to open pages, per week. Pages either hold a Server-Sent
+// Events stream or long-poll. Neither pins a thread while idle: the handler registers the
+// exchange here and returns. One hub thread fans events out and runs heartbeats and poll
+// timeouts, but never touches a socket. Every stream has its own small frame queue, which a
+// writer thread drains only while there is something to send, and poll answers go out on those
+// threads too. A phone that stops reading therefore only blocks its own writer. Once its queue
+// overflows or a write has hung for WRITE_TIMEOUT_MILLIS, it is dropped.
+//
+// Event ids are WeeklyChecklist versions, the same numbers sync tokens use, so a page that
+// reconnects with an id can be told whether it missed anything.
+public class ChecklistEvents {
+    private static final long HEARTBEAT_SECONDS = 20;
+    private static final long POLL_TIMEOUT_MILLIS = 25_000;
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RETRY = "retry: 5000\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_QUEUED_FRAMES = 64;
+    private static final long WRITE_TIMEOUT_MILLIS = 10_000;
+    // set on exchanges the hub has taken over; the metrics and access log filters skip them, as
+    // the handler returning says nothing about when they end or what they sent
+    private static final String DETACHED = "blackberry.events.detached";
+
+    private final int maxConnections;
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ScheduledExecutorService hub;
+    private final ExecutorService writers;
+
+    public static class Event {
+        final long id;
+        final String type;
+        final String data; // JSON
+
+        public Event(long id, String type, String data) {
+            this.id = id;
+            this.type = type;
+            this.data = data;
+        }
+
+        byte[] toSse() {
+            return ("id: " + id + "\nevent: " + type + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+        }
+
+        String toJson() {
+            return "{\"type\":\"" + type + "\",\"data\":" + data + "}";
+        }
+    }
+
+    private static class Poller {
+        final HttpExchange exchange;
+        final long after;
+        final long deadline;
+
+        Poller(HttpExchange exchange, long after) {
+            this.exchange = exchange;
+            this.after = after;
+            this.deadline = System.currentTimeMillis() + POLL_TIMEOUT_MILLIS;
+        }
+    }
+
+    // the lists are only changed under the channel's lock
+    private static class Channel {
+        final List<Stream> streams = new ArrayList<>();
+        final List<Poller> pollers = new ArrayList<>();
+    }
+
+    // one open event stream; at most one writer task drains it at a time
+    private class Stream {
+        final String weekId;
+        final OutputStream out;
+        private final ArrayDeque<byte[]> queue = new ArrayDeque<>();
+        private boolean writing;
+        private boolean closed;
+        private volatile long writeStarted; // millis, 0 while no write is in progress
+
+        Stream(String weekId, OutputStream out) {
+            this.weekId = weekId;
+            this.out = out;
+        }
+
+        // false if the stream is closed or too far behind to catch up
+        synchronized boolean offer(byte[] frame) {
+            if (closed || queue.size() >= MAX_QUEUED_FRAMES) return false;
+            queue.add(frame);
+            if (!writing) {
+                writing = true;
+                writers.execute(this::drain);
+            }
+            return true;
+        }
+
+        synchronized boolean isIdle() {
+            return queue.isEmpty() && !writing;
+        }
+
+        boolean isStuck(long now) {
+            long started = writeStarted;
+            return started != 0 && now - started > WRITE_TIMEOUT_MILLIS;
+        }
+
+        // closed right away, or by the writer once the write it is stuck in returns or fails
+        void kill() {
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+                queue.clear();
+                if (writing) return;
+            }
+            release();
+        }
+
+        private void drain() {
+            while (true) {
+                byte[] frame;
+                synchronized (this) {
+                    frame = closed ? null : queue.poll();
+                    if (frame == null) {
+                        writing = false;
+                        if (!closed) return;
+                        break;
+                    }
+                }
+                writeStarted = System.currentTimeMillis();
+                boolean ok = write(out, frame);
+                writeStarted = 0;
+                if (!ok) {
+                    drop(this);
+                }
+            }
+            release();
+        }
+
+        private void release() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // already broken
+            }
+            connections.decrementAndGet();
+        }
+    }
+
+    public ChecklistEvents(int maxConnections) {
+        this.maxConnections = maxConnections;
+        this.hub = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "event-hub");
+            t.setDaemon(true);
+            return t;
+        });
+        // threads come and go with the connections that have something to send, at most one per connection
+        this.writers = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "event-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        hub.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+        hub.scheduleWithFixedDelay(this::expirePolls, 1, 1, TimeUnit.SECONDS);
+        hub.scheduleWithFixedDelay(this::dropStuck, 1, 1, TimeUnit.SECONDS);
+    }
+
+    public static boolean isDetached(HttpExchange exchange) {
+        return exchange.getAttribute(DETACHED) != null;
+    }
+
+    // false if the connection limit is reached; the caller answers 503 then
+    public boolean tryOpen() {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    // takes over an exchange whose event-stream headers are sent; catchUp (may be null) goes out first
+    public void stream(String weekId, HttpExchange exchange, Event catchUp) {
+        exchange.setAttribute(DETACHED, Boolean.TRUE);
+        Stream stream = new Stream(weekId, exchange.getResponseBody());
+        register(weekId, channel -> channel.streams.add(stream));
+        hub.execute(() -> {
+            if (!stream.offer(RETRY) || (catchUp != null && !stream.offer(catchUp.toSse()))) {
+                drop(stream);
+            }
+        });
+    }
+
+    // parks a long-poll until the next event for the week or the timeout
+    public void park(String weekId, HttpExchange exchange, long after) {
+        exchange.setAttribute(DETACHED, Boolean.TRUE);
+        register(weekId, channel -> channel.pollers.add(new Poller(exchange, after)));
+    }
+
+    // atomic with the removal of idle channels, so nothing registers on a channel that is being thrown away
+    private void register(String weekId, Consumer<Channel> change) {
+        channels.compute(weekId, (id, channel) -> {
+            if (channel == null) channel = new Channel();
+            synchronized (channel) {
+                change.accept(channel);
+            }
+            return channel;
+        });
+    }
+
+    // takes a parked poll back if no event has answered it yet, so the caller can answer it itself
+    public boolean unpark(String weekId, HttpExchange exchange) {
+        Channel channel = channels.get(weekId);
+        if (channel == null) return false;
+        synchronized (channel) {
+            if (!channel.pollers.removeIf(p -> p.exchange == exchange)) return false;
+        }
+        exchange.setAttribute(DETACHED, null); // answered by the handler after all
+        return true;
+    }
+
+    public void publish(String weekId, Event event) {
+        Channel channel = channels.get(weekId);
+        if (channel == null) return;
+        List<Stream> streams;
+        List<Poller> pollers;
+        synchronized (channel) {
+            if (channel.streams.isEmpty() && channel.pollers.isEmpty()) return;
+            streams = new ArrayList<>(channel.streams);
+            pollers = new ArrayList<>(channel.pollers);
+            channel.pollers.clear();
+        }
+        // through the hub, so every stream gets the events of a week in the same order
+        hub.execute(() -> {
+            byte[] frame = event.toSse();
+            for (Stream stream : streams) {
+                if (!stream.offer(frame)) {
+                    drop(stream);
+                }
+            }
+            for (Poller poller : pollers) {
+                writers.execute(() -> answer(poller.exchange, event.id, event));
+            }
+        });
+    }
+
+    public boolean hasListeners(String weekId) {
+        Channel channel = channels.get(weekId);
+        if (channel == null) return false;
+        synchronized (channel) {
+            return !channel.streams.isEmpty() || !channel.pollers.isEmpty();
+        }
+    }
+
+    // {"id": cursor for the next poll, "events": [...]}; called on a request thread or a writer thread
+    public void answer(HttpExchange exchange, long id, Event event) {
+        String json = "{\"id\":" + id + ",\"events\":[" + (event != null ? event.toJson() : "") + "]}";
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (IOException e) {
+            // the phone gave up on this poll; it will ask again
+        } finally {
+            exchange.close();
+            connections.decrementAndGet();
+        }
+    }
+
+    private boolean write(OutputStream out, byte[] frame) {
+        try {
+            out.write(frame);
+            out.flush();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void drop(Stream stream) {
+        Channel channel = channels.get(stream.weekId);
+        if (channel != null) {
+            synchronized (channel) {
+                channel.streams.remove(stream);
+            }
+        }
+        stream.kill();
+    }
+
+    private List<Stream> allStreams() {
+        List<Stream> streams = new ArrayList<>();
+        for (Channel channel : channels.values()) {
+            synchronized (channel) {
+                streams.addAll(channel.streams);
+            }
+        }
+        return streams;
+    }
+
+    // a comment line keeps proxies from timing the stream out and finds connections that died
+    // quietly; a stream with frames still waiting needs no heartbeat
+    private void heartbeat() {
+        for (Stream stream : allStreams()) {
+            if (stream.isIdle() && !stream.offer(HEARTBEAT)) {
+                drop(stream);
+            }
+        }
+    }
+
+    // a write that hangs this long means the phone stopped reading; its writer is left to fail on its own
+    private void dropStuck() {
+        long now = System.currentTimeMillis();
+        for (Stream stream : allStreams()) {
+            if (stream.isStuck(now)) {
+                Log.warn("Dropping event stream for " + stream.weekId + ": write blocked for over "
+                        + WRITE_TIMEOUT_MILLIS / 1000 + "s");
+                drop(stream);
+            }
+        }
+    }
+
+    private void expirePolls() {
+        long now = System.currentTimeMillis();
+        for (Channel channel : channels.values()) {
+            List<Poller> expired = new ArrayList<>();
+            synchronized (channel) {
+                for (Iterator<Poller> it = channel.pollers.iterator(); it.hasNext(); ) {
+                    Poller poller = it.next();
+                    if (poller.deadline <= now) {
+                        expired.add(poller);
+                        it.remove();
+                    }
+                }
+            }
+            for (Poller poller : expired) {
+                writers.execute(() -> answer(poller.exchange, poller.after, null));
+            }
+        }
+        // weeks nobody is watching any more
+        for (String weekId : channels.keySet()) {
+            channels.computeIfPresent(weekId, (id, channel) -> {
+                synchronized (channel) {
+                    return channel.streams.isEmpty() && channel.pollers.isEmpty() ? null : channel;
+                }
+            });
+        }
+    }
+
+    // closes every open stream and poll so the server can stop without waiting for them
+    public void shutdown() {
+        hub.shutdownNow();
+        channels.forEach((weekId, channel) -> {
+            synchronized (channel) {
+                for (Stream stream : channel.streams) {
+                    stream.kill();
+                }
+                for (Poller poller : channel.pollers) {
+                    poller.exchange.close();
+                }
+                channel.streams.clear();
+                channel.pollers.clear();
+            }
+        });
+        writers.shutdownNow();
+    }
+
+    // Stats
+    public int getConnectionCount() { return connections.get(); }
+}
@@ -0,0 +1,77 @@
+package com.projectblackberry;
+
+import com.projectblackberry.model.WeeklyChecklist;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Startup loading of data/checklists: one directory listing (week files in any codec), then either every file parsed in
+// parallel (eager) or just a weekId -> file index with parsing deferred to first access (lazy)
+public class ChecklistLoader {
+    public static Map<String, Path> index(Path dataDir, ChecklistCodec preferred) throws IOException {
+        Map<String, Path> index = new ConcurrentHashMap<>();
+        if (!Files.isDirectory(dataDir)) return index;
+        try (Stream<Path> listing = Files.list(dataDir)) {
+            listing.forEach(p -> {
+                String filename = p.getFileName().toString();
+                ChecklistCodec format = ChecklistCodec.forFileName(filename);
+                String weekId = format != null
+                        ? WeekUtils.normalize(filename.substring(0, filename.length() - format.getExtension().length())) : null;
+                if (weekId != null) {
+                    // a week left in two formats: take the configured one, as FileStorageEngine does;
+                    // one left under two spellings ("2025-W01"): take the normalised one, which saves go to
+                    index.merge(weekId, p, (a, b) -> {
+                        boolean aNamed = a.getFileName().toString().startsWith(weekId + ".");
+                        boolean bNamed = b.getFileName().toString().startsWith(weekId + ".");
+                        if (aNamed != bNamed) return aNamed ? a : b;
+                        return format == preferred ? b : a;
+                    });
+                }
+            });
+        }
+        return index;
+    }
+
+    // the limit most recently modified files of the index, for warming a cache smaller than the data directory
+    public static Map<String, Path> newest(Map<String, Path> index, int limit) {
+        Map<String, Path> newest = new LinkedHashMap<>();
+        index.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Path> e) -> lastModified(e.getValue())).reversed())
+                .limit(limit)
+                .forEach(e -> newest.put(e.getKey(), e.getValue()));
+        return newest;
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // parses every indexed file on the common fork-join pool, one task per file
+    public static Map<String, WeeklyChecklist> loadAll(Map<String, Path> index) {
+        Map<String, WeeklyChecklist> loaded = new ConcurrentHashMap<>();
+        AtomicInteger failed = new AtomicInteger();
+        index.entrySet().parallelStream().forEach(entry -> {
+            try {
+                loaded.put(entry.getKey(), ChecklistStorage.loadChecklistFile(entry.getValue()));
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                Log.error("Error loading " + entry.getValue() + ": " + e.getMessage());
+            }
+        });
+        if (failed.get() > 0) {
+            Log.warn("Skipped " + failed.get() + " unreadable checklist file(s)");
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,252 @@
+package com.projectblackberry;
+
+import com.projectblackberry.model.DayChecklist;
+import com.projectblackberry.model.ResourceLink;
+import com.projectblackberry.model.TaskItem;
+import com.projectblackberry.model.WeeklyChecklist;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+// Renders the weekly checklist page from templates compiled once at class load. Pages headed for
+// the page cache are measured first and rendered into a byte[] of exactly that size; big weeks
+// are streamed into the response body.
+public class ChecklistRenderer {
+    private static final String[] MONTHS = {"", "January", "February", "March", "April", "May", "June",
+            "July", "August", "September", "October", "November", "December"};
+    private static final String[] WEEKDAYS = {"Sunday", "Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday"};
+    private static final Template HEAD = Template.compile(PageStyle.head("Weekly Checklist - {{week}}", "checklist.css") + """
+                <div class="container">
+                    <h1>Weekly Checklist: {{week}}</h1>
+                    <nav>
+                        <a href="/">Home</a>
+                        <a href="/navigator">Resource Navigator</a>
+                        <a href="/checklist">Current Week</a>
+                        <a href="/search">Search</a>
+                    </nav>
+            """, "week");
+    private static final Template DAY_START = Template.compile("""
+                    <div class="day">
+                        <h2>{{date}}</h2>
+            """, "date");
+    private static final Template DAY_PLANNED = Template.compile("""
+                        <p><strong>Planned Time:</strong> {{planned}}</p>
+            """, "planned");
+    private static final Template DAY_END = Template.compile("""
+                    </div>
+            """);
+    private static final Template TASK_START = Template.compile("""
+                        <div class="task{{raw:completed}}">
+                            <label>
+                                <input type="checkbox" id="{{id}}"{{raw:checked}} onchange="saveTaskState('{{js:id}}', this.checked)">
+                                {{description}}
+            """, "id", "completed", "checked", "description");
+    private static final Template TASK_PRIORITY = Template.compile("""
+                                <span class="priority {{priority}}">{{priority}}</span>
+            """, "priority");
+    private static final Template TASK_TIME = Template.compile("""
+                                <span class="time">({{time}})</span>
+            """, "time");
+    private static final Template TASK_END = Template.compile("""
+                            </label>
+                        </div>
+            """);
+    private static final Template RESOURCES_START = Template.compile("""
+                    <div class="day" style="margin-top: 40px;">
+                        <h2>Resources for This Week</h2>
+                        <ul style="list-style-type: none; padding: 0;">
+            """);
+    private static final Template RESOURCE = Template.compile("""
+                            <li style="margin: 10px 0; padding: 10px; background: white; border: 1px solid #ddd;">
+                                <a href="{{url}}" style="color: #0066cc; text-decoration: none; font-weight: bold;">{{title}}</a>
+            """, "url", "title");
+    private static final Template RESOURCE_CATEGORY = Template.compile("""
+                                <span style="color: #666; font-size: 0.9em; margin-left: 10px;">({{category}})</span>
+            """, "category");
+    private static final Template RESOURCE_END = Template.compile("""
+                            </li>
+            """);
+    private static final Template RESOURCES_END = Template.compile("""
+                        </ul>
+                    </div>
+            """);
+    // the multi-week page: one section per week, each rendered on its own
+    private static final Template PAGER = Template.compile("""
+                    <nav class="pager">
+                        {{raw:previous}}<span>{{position}}</span>{{raw:next}}
+                    </nav>
+            """, "previous", "position", "next");
+    private static final Template WEEK_START = Template.compile("""
+                    <div class="week" id="{{week}}">
+                        <h2 class="week-title"><a href="/checklist?week={{week}}">{{title}}</a></h2>
+            """, "week", "title");
+    private static final Template WEEK_EMPTY = Template.compile("""
+                        <p class="empty">Nothing planned.</p>
+            """);
+    private static final Template WEEK_FAILED = Template.compile("""
+                        <p class="empty">This week could not be loaded.</p>
+            """);
+    private static final Template WEEK_END = Template.compile("""
+                    </div>
+            """);
+    private static final Template RANGE_END = Template.compile("""
+                </div>
+                <script src="%s"></script>
+            </body>
+            </html>
+            """.formatted(StaticAssets.url("range.js")));
+    // the script itself is a static asset; the page only hands it the values for this week
+    private static final Template SCRIPT = Template.compile("""
+                </div>
+                <script>var WEEK = '{{js:week}}', syncToken = '{{js:token}}', lastEventId = '{{js:version}}';</script>
+                <script src="%s"></script>
+            </body>
+            </html>
+            """.formatted(StaticAssets.url("checklist.js")), "week", "token", "version");
+
+    static byte[] renderToBytes(WeeklyChecklist checklist) {
+        // the version is read once, so both passes render the same sync token
+        long version = checklist.getVersion();
+        TemplateOutput.Measure size = new TemplateOutput.Measure();
+        render(checklist, version, size);
+        TemplateOutput.Bytes bytes = new TemplateOutput.Bytes(size.getSize());
+        render(checklist, version, bytes);
+        return bytes.toByteArray();
+    }
+
+    // writes the page to the response body as it renders
+    static void stream(WeeklyChecklist checklist, OutputStream out) throws IOException {
+        try (TemplateOutput.Stream html = new TemplateOutput.Stream(out)) {
+            render(checklist, checklist.getVersion(), html);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    static int countTasks(WeeklyChecklist checklist) {
+        int count = 0;
+        for (DayChecklist day : checklist.getDays().values()) {
+            count += day.getTasks().size();
+        }
+        return count;
+    }
+
+    // version has to be taken before any task is read: changes the page misses are newer than its sync token / event id
+    static void render(WeeklyChecklist checklist, long version, TemplateOutput html) {
+        String weekId = checklist.getWeekId();
+        HEAD.render(html, weekId);
+        html.flush(); // let the browser start on the head while the days render
+        renderDays(checklist, weekId, html);
+        SCRIPT.render(html, weekId, ChecklistSync.token(version), Long.toString(version));
+    }
+
+    // days in date order, then the week's resources
+    private static void renderDays(WeeklyChecklist checklist, String weekId, TemplateOutput html) {
+        for (DayChecklist day : checklist.getDays().values()) {
+            DAY_START.render(html, day.getLocalDate() != null ? formatDate(day.getLocalDate()) : day.getDate());
+            if (day.getPlannedTime() != null && !day.getPlannedTime().isEmpty()) {
+                DAY_PLANNED.render(html, day.getPlannedTime());
+            }
+            for (TaskItem task : day.getTasks()) {
+                renderTask(weekId, day.getDate(), task, html);
+            }
+            DAY_END.render(html);
+        }
+
+        // display resources section if they exist
+        if (checklist.getResources() != null && !checklist.getResources().isEmpty()) {
+            RESOURCES_START.render(html);
+            for (ResourceLink resource : checklist.getResources()) {
+                RESOURCE.render(html, resource.getUrl(), resource.getTitle());
+                if (resource.getCategory() != null && !resource.getCategory().isEmpty()) {
+                    RESOURCE_CATEGORY.render(html, resource.getCategory());
+                }
+                RESOURCE_END.render(html);
+            }
+            RESOURCES_END.render(html);
+        }
+    }
+
+    // head and pager of a range page; previous and next are links (markup) or empty
+    static void renderRangeStart(String title, String previous, String position, String next, TemplateOutput html) {
+        HEAD.render(html, title);
+        if (position != null) {
+            PAGER.render(html, previous, position, next);
+        }
+    }
+
+    static void renderRangeEnd(TemplateOutput html) {
+        RANGE_END.render(html);
+    }
+
+    // one week of a range page, with the same rows as the week's own page; null = no plan for it
+    static byte[] renderWeekSection(String weekId, WeeklyChecklist checklist) {
+        TemplateOutput.Measure size = new TemplateOutput.Measure();
+        renderWeekSection(weekId, checklist, size);
+        TemplateOutput.Bytes bytes = new TemplateOutput.Bytes(size.getSize());
+        renderWeekSection(weekId, checklist, bytes);
+        return bytes.toByteArray();
+    }
+
+    // stands in for a week whose section failed, so the rest of the range still renders
+    static void renderWeekError(String weekId, TemplateOutput html) {
+        WEEK_START.render(html, weekId, WeekUtils.formatWeekId(weekId));
+        WEEK_FAILED.render(html);
+        WEEK_END.render(html);
+    }
+
+    private static void renderWeekSection(String weekId, WeeklyChecklist checklist, TemplateOutput html) {
+        WEEK_START.render(html, weekId, WeekUtils.formatWeekId(weekId));
+        boolean noResources = checklist == null || checklist.getResources() == null || checklist.getResources().isEmpty();
+        if (checklist == null || (checklist.getDays().isEmpty() && noResources)) {
+            WEEK_EMPTY.render(html);
+        } else {
+            renderDays(checklist, weekId, html);
+        }
+        WEEK_END.render(html);
+    }
+
+    // one task row; also sent on its own to open pages when a re-import changes it
+    static void renderTask(String weekId, String date, TaskItem task, TemplateOutput html) {
+        String taskId = weekId + "-" + date + "-" + task.getId();
+        boolean completed = task.isCompleted();
+        TASK_START.render(html, taskId, completed ? " completed" : "", completed ? " checked" : "", task.getDescription());
+        TASK_PRIORITY.render(html, task.getPriority().name());
+        if (task.getEstimatedTime() != null && !task.getEstimatedTime().isEmpty()) {
+            TASK_TIME.render(html, task.getEstimatedTime());
+        }
+        TASK_END.render(html);
+    }
+
+    static String renderTask(String weekId, String date, TaskItem task) {
+        TemplateOutput.Measure size = new TemplateOutput.Measure();
+        renderTask(weekId, date, task, size);
+        TemplateOutput.Bytes bytes = new TemplateOutput.Bytes(size.getSize());
+        renderTask(weekId, date, task, bytes);
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    static String formatDate(String dateStr) {
+        LocalDate date = DayChecklist.parseDate(dateStr);
+        // if parsing fails, just return original string
+        return date != null ? formatDate(date) : dateStr;
+    }
+
+    // "Monday, December 29, 2025"
+    static String formatDate(LocalDate date) {
+        return WEEKDAYS[date.getDayOfWeek().getValue() % 7] + ", " + MONTHS[date.getMonthValue()] + " "
+                + date.getDayOfMonth() + ", " + date.getYear();
+    }
+
+    static String escapeHtml(String text) {
+        if (text == null) return "";
+        return text.replace("&", "&amp;")
+                  .replace("<", "&lt;")
+                  .replace(">", "&gt;")
+                  .replace("\"", "&quot;")
+                  .replace("'", "&#39;");
+    }
+}
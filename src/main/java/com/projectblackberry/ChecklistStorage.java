@@ -1,55 +1,114 @@
 package com.projectblackberry;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.projectblackberry.model.WeeklyChecklist;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collection;
 
 public class ChecklistStorage {
-    private static final ObjectMapper objectMapper = new ObjectMapper();
-    private static final String DATA_DIR = "data/checklists";
+    private static final ServerConfig config = ServerConfig.load();
+    private static final Path DATA_DIR = Paths.get(config.getDataDir());
 
     static {
         try {
-            Files.createDirectories(Paths.get(DATA_DIR));
+            Files.createDirectories(DATA_DIR);
         } catch (IOException e) {
-            System.err.println("Warning: Could not create data directory: " + e.getMessage());
+            Log.warn("Could not create data directory: " + e.getMessage());
         }
     }
 
+    private static final LatencyHistogram saveTimer = Metrics.timer("storage_save");
+    private static final LatencyHistogram loadTimer = Metrics.timer("storage_load");
+
+    private static final FileStorageEngine files = new FileStorageEngine(DATA_DIR, config.getCodec(), config.isCodecMigration());
+    private static final StorageEngine engine = createEngine();
+
+    private static StorageEngine createEngine() {
+        if ("journal".equalsIgnoreCase(config.getStorageEngine())) {
+            try {
+                return new JournalStorageEngine(files, config.getCodec(), DATA_DIR.resolve("journal.log"),
+                        config.getJournalCompactBytes(), config.getJournalCompactSeconds());
+            } catch (IOException e) {
+                Log.warn("Could not open journal, using plain files: " + e.getMessage());
+            }
+        }
+        return files;
+    }
+
     public static void saveChecklist(WeeklyChecklist checklist) throws IOException {
-        String filename = checklist.getWeekId() + ".json";
-        Path filePath = Paths.get(DATA_DIR, filename);
-        objectMapper.writerWithDefaultPrettyPrinter().writeValue(filePath.toFile(), checklist);
-        System.out.println("Saved checklist to: " + filePath);
+        long started = System.nanoTime();
+        try {
+            engine.save(checklist);
+        } finally {
+            saveTimer.recordNanos(System.nanoTime() - started);
+        }
+    }
+
+    public static void saveChecklists(Collection<WeeklyChecklist> checklists) throws IOException {
+        long started = System.nanoTime();
+        try {
+            engine.saveAll(checklists);
+        } finally {
+            saveTimer.recordNanos(System.nanoTime() - started);
+        }
+    }
+
+    public static void saveTaskChanges(WeeklyChecklist checklist, Collection<StorageEngine.TaskChange> changes) throws IOException {
+        long started = System.nanoTime();
+        try {
+            engine.saveTaskChanges(checklist, changes);
+        } finally {
+            saveTimer.recordNanos(System.nanoTime() - started);
+        }
     }
 
     public static WeeklyChecklist loadChecklist(String weekId) {
+        long started = System.nanoTime();
         try {
-            String filename = weekId + ".json";
-            Path filePath = Paths.get(DATA_DIR, filename);
-            File file = filePath.toFile();
-            
-            if (file.exists()) {
-                WeeklyChecklist checklist = objectMapper.readValue(file, WeeklyChecklist.class);
-                System.out.println("Loaded checklist from: " + filePath);
-                return checklist;
-            }
-            // file doesn't exist, return null
-        } catch (Exception e) {
-            System.err.println("Error loading checklist " + weekId + ": " + e.getMessage());
+            return engine.load(weekId);
+        } finally {
+            loadTimer.recordNanos(System.nanoTime() - started);
+        }
+    }
+
+    // reads a week file found by listing the data directory. Any journal has already been
+    // compacted into the files by the time the server lists them.
+    public static WeeklyChecklist loadChecklistFile(Path file) throws IOException {
+        long started = System.nanoTime();
+        try {
+            return files.load(file);
+        } finally {
+            loadTimer.recordNanos(System.nanoTime() - started);
         }
-        return null;
+    }
+
+    // a save of our own rather than an edit from outside the server
+    public static boolean isOwnWrite(Path file) {
+        return files.isOwnWrite(file);
+    }
+
+    // whether the engine reads the week straight from this file; if not (journal, or a file in the
+    // other codec while migrating), a week taken from it has to be saved for the change to survive a restart
+    public static boolean isWeekOfRecord(Path file) {
+        return engine == files && files.isWeekOfRecord(file);
     }
 
     public static boolean checklistExists(String weekId) {
-        String filename = weekId + ".json";
-        Path filePath = Paths.get(DATA_DIR, filename);
-        return filePath.toFile().exists();
+        return engine.exists(weekId);
+    }
+
+    public static StorageEngine getEngine() {
+        return engine;
     }
-}
 
+    public static Path getDataDir() {
+        return DATA_DIR;
+    }
+
+    public static void close() {
+        engine.close();
+    }
+}
@@ -0,0 +1,46 @@
+package com.projectblackberry;
+
+import com.projectblackberry.model.TaskItem;
+import com.projectblackberry.model.WeeklyChecklist;
+
+// Delta sync between the checklist page's localStorage and the server, one week at a time:
+//
+//   POST /sync?week=2025-W1  {"since":"lq3x.412","changes":[{"k":"2025-W1-2025-12-29-1","c":1,"t":1767000000000}]}
+//   <- {"token":"lq3x.418","reset":0,"changes":[{"k":"2025-W1-2025-12-30-2","c":0,"t":1767000100000}]}
+//
+// k is the checkbox id, c the completion, t when it changed (client clock, epoch millis). The
+// token is "<boot id>.<version>": every server-side task change is stamped with the next
+// WeeklyChecklist version, so "changed since the token" is a comparison per task. A token from
+// another run of the server, or from before the week was last imported or loaded, gets the
+// whole week back with reset=1.
+//
+// Merging is last-writer-wins on t, with "completed" winning exact ties, so the outcome doesn't
+// depend on the order in which devices happen to sync.
+public class ChecklistSync {
+    // phones with a clock in the future would otherwise win every merge for as long as it's wrong
+    static long clampTime(long clientTime, long now) {
+        return Math.max(0, Math.min(clientTime, now));
+    }
+
+    static boolean wins(TaskItem task, boolean completed, long updatedAt) {
+        if (updatedAt != task.getUpdatedAt()) return updatedAt > task.getUpdatedAt();
+        return completed && !task.isCompleted();
+    }
+
+    static String token(long version) {
+        return CachedPage.BOOT_ID + "." + Long.toString(version, 36);
+    }
+
+    // the version a token stands for, or -1 if the client has to start over
+    static long sinceVersion(String token, WeeklyChecklist checklist) {
+        if (token == null) return -1;
+        int dot = token.lastIndexOf('.');
+        if (dot < 0 || !token.substring(0, dot).equals(CachedPage.BOOT_ID)) return -1;
+        try {
+            long version = Long.parseLong(token.substring(dot + 1), 36);
+            return version >= checklist.getCreatedVersion() ? version : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.projectblackberry;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Watches the data directory for week files written by something other than the server (an
+// editor, a copy, a sync tool) and hands each changed file over once things have gone quiet.
+// Editors and copies produce bursts of events for one save, so changes are collected until no
+// event has arrived for the debounce period, and then every file is handed over once. Our own
+// saves are recognised by FileStorageEngine and skipped; temp files and the journal never match
+// a codec extension. Deleting a file changes nothing: the week stays as it is in memory.
+public class ChecklistWatcher {
+    private final Path dir;
+    private final long debounceMillis;
+    private final long maxWaitMillis;
+    private final Consumer<Path> onChange;
+    private final WatchService service;
+    private final Thread thread;
+    private final LongAdder changes = new LongAdder();
+    private final LongAdder ownWrites = new LongAdder();
+
+    public ChecklistWatcher(Path dir, long debounceMillis, Consumer<Path> onChange) throws IOException {
+        this.dir = dir;
+        this.debounceMillis = Math.max(1, debounceMillis);
+        this.maxWaitMillis = this.debounceMillis * 10; // a file rewritten non-stop still gets picked up
+        this.onChange = onChange;
+        this.service = dir.getFileSystem().newWatchService();
+        dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::run, "checklist-watcher");
+        thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    private void run() {
+        Set<Path> changed = new LinkedHashSet<>();
+        long firstChange = 0;
+        try {
+            while (true) {
+                WatchKey key;
+                if (changed.isEmpty()) {
+                    key = service.take();
+                    firstChange = System.currentTimeMillis();
+                } else {
+                    long left = firstChange + maxWaitMillis - System.currentTimeMillis();
+                    key = left > 0 ? service.poll(Math.min(debounceMillis, left), TimeUnit.MILLISECONDS) : null;
+                }
+                if (key == null) {
+                    dispatch(changed);
+                    changed.clear();
+                    continue;
+                }
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        Log.warn("File watcher missed events, rescanning " + dir);
+                        listWeekFiles(changed);
+                    } else if (isWeekFile((Path) event.context())) {
+                        changed.add(dir.resolve((Path) event.context()));
+                    }
+                }
+                if (!key.reset()) {
+                    Log.warn("Stopped watching " + dir + ": directory is gone");
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stopped
+        }
+    }
+
+    private void dispatch(Set<Path> changed) {
+        for (Path file : changed) {
+            // gone again (a temp copy, or migrated to the other codec in the meantime)
+            if (!Files.exists(file)) continue;
+            if (ChecklistStorage.isOwnWrite(file)) {
+                ownWrites.increment();
+                continue;
+            }
+            changes.increment();
+            try {
+                onChange.accept(file);
+            } catch (RuntimeException e) {
+                Log.error("Error reloading " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void listWeekFiles(Set<Path> into) {
+        try (Stream<Path> listing = Files.list(dir)) {
+            listing.filter(p -> isWeekFile(p.getFileName())).forEach(into::add);
+        } catch (IOException e) {
+            Log.error("Could not list " + dir + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean isWeekFile(Path name) {
+        return ChecklistCodec.forFileName(name.toString()) != null;
+    }
+
+    public void stop() {
+        try {
+            service.close();
+        } catch (IOException e) {
+            // closing anyway
+        }
+    }
+
+    // Stats
+    public long getChangeCount() { return changes.sum(); }
+    public long getOwnWriteCount() { return ownWrites.sum(); }
+}
@@ -0,0 +1,209 @@
+package com.projectblackberry;
+
+import com.projectblackberry.model.WeeklyChecklist;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Every checklist write goes through one background thread. In-memory edits mark a week dirty and
+// are flushed after a short delay, so a burst of checkbox taps becomes one storage write per week.
+public class ChecklistWriteBehind {
+    private final long delayMillis;
+    private final Map<String, PendingWeek> dirty = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "checklist-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final LongAdder marked = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public ChecklistWriteBehind(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    // only ever touched inside dirty.compute, so the flush either sees all of an update or none of it
+    private static class PendingWeek {
+        final WeeklyChecklist checklist;
+        final Map<String, StorageEngine.TaskChange> changes = new LinkedHashMap<>();
+        boolean wholeWeek;
+
+        PendingWeek(WeeklyChecklist checklist) {
+            this.checklist = checklist;
+        }
+    }
+
+    // the whole week has to be written, e.g. after its structure changed
+    public void markDirty(WeeklyChecklist checklist) {
+        marked.increment();
+        update(checklist, pending -> pending.wholeWeek = true);
+    }
+
+    // one task flipped; storage engines that can append small edits only write this
+    public void markTaskChanged(WeeklyChecklist checklist, String date, String taskId, boolean completed, long updatedAt) {
+        marked.increment();
+        update(checklist, pending -> pending.changes.put(date + "\u0000" + taskId,
+                new StorageEngine.TaskChange(date, taskId, completed, updatedAt)));
+    }
+
+    private void update(WeeklyChecklist checklist, Consumer<PendingWeek> change) {
+        String weekId = checklist.getWeekId();
+        boolean[] created = new boolean[1];
+        dirty.compute(weekId, (key, pending) -> {
+            if (pending == null || pending.checklist != checklist) {
+                boolean replaced = pending != null;
+                pending = new PendingWeek(checklist);
+                pending.wholeWeek = replaced; // a different object for the same week: write it whole
+                created[0] = !replaced;
+            }
+            change.accept(pending);
+            return pending;
+        });
+        if (created[0]) {
+            writer.schedule(() -> flush(weekId), delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // writes now (on the writer thread, so it can't race a pending flush) and drops any pending edit for the week
+    public void saveNow(WeeklyChecklist checklist) throws IOException {
+        saveNow(checklist, null);
+    }
+
+    // saved runs on the writer thread once the save succeeded, e.g. to put a new week in place of the
+    // cached one; not at all if the save failed
+    public void saveNow(WeeklyChecklist checklist, Runnable saved) throws IOException {
+        Future<?> done = writer.submit(() -> {
+            dirty.remove(checklist.getWeekId());
+            ChecklistStorage.saveChecklist(checklist);
+            writes.increment();
+            published(List.of(checklist), saved);
+            return null;
+        });
+        await(done);
+    }
+
+    // same as saveNow for a batch of weeks, handed to the storage engine in one call
+    public void saveAllNow(Collection<WeeklyChecklist> checklists, Runnable saved) throws IOException {
+        Future<?> done = writer.submit(() -> {
+            for (WeeklyChecklist checklist : checklists) {
+                dirty.remove(checklist.getWeekId());
+            }
+            ChecklistStorage.saveChecklists(checklists);
+            writes.add(checklists.size());
+            published(checklists, saved);
+            return null;
+        });
+        await(done);
+    }
+
+    // edits that reached the replaced copies while they were being saved must not be written over the new ones
+    private void published(Collection<WeeklyChecklist> checklists, Runnable saved) {
+        if (saved == null) return;
+        saved.run();
+        for (WeeklyChecklist checklist : checklists) {
+            dirty.computeIfPresent(checklist.getWeekId(), (key, pending) -> pending.checklist == checklist ? pending : null);
+        }
+    }
+
+    // the week was replaced from its file: edits of the old instance must not be written over it.
+    // Runs on the writer thread, so a flush already under way has finished when this returns.
+    public void discard(String weekId) throws IOException {
+        await(writer.submit(() -> {
+            dirty.remove(weekId);
+            return null;
+        }));
+    }
+
+    // the in-memory copy with edits not yet on disk, if any
+    public WeeklyChecklist getPending(String weekId) {
+        PendingWeek pending = dirty.get(weekId);
+        return pending != null ? pending.checklist : null;
+    }
+
+    private void flush(String weekId) {
+        PendingWeek pending = dirty.remove(weekId);
+        if (pending == null) return;
+        try {
+            if (pending.wholeWeek) {
+                ChecklistStorage.saveChecklist(pending.checklist);
+            } else {
+                ChecklistStorage.saveTaskChanges(pending.checklist, pending.changes.values());
+            }
+            writes.increment();
+        } catch (Exception e) {
+            failures.increment();
+            Log.error("Error saving checklist " + weekId + ", will retry: " + e.getMessage());
+            // Back in with the week written whole, which is the simplest safe retry. Toggles that
+            // came in during the failed write already have their own entry and flush. The failed
+            // changes are only in the checklist itself, so that entry has to write it whole as well.
+            boolean[] created = new boolean[1];
+            dirty.compute(weekId, (key, current) -> {
+                if (current == null) {
+                    current = pending;
+                    created[0] = true;
+                }
+                current.wholeWeek = true;
+                return current;
+            });
+            if (created[0]) {
+                writer.schedule(() -> flush(weekId), Math.max(1000, delayMillis), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    public void flushAll() {
+        try {
+            await(writer.submit(() -> {
+                for (String weekId : new ArrayList<>(dirty.keySet())) {
+                    flush(weekId);
+                }
+            }));
+        } catch (IOException e) {
+            Log.error("Error flushing checklists: " + e.getMessage());
+        }
+    }
+
+    // flushes whatever is still pending; called from the shutdown hook
+    public void shutdown() {
+        flushAll();
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while saving", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    // Stats
+    public int getPendingCount() { return dirty.size(); }
+    public long getMarkedCount() { return marked.sum(); }
+    public long getWriteCount() { return writes.sum(); }
+    public long getFailureCount() { return failures.sum(); }
+}
@@ -0,0 +1,107 @@
+package com.projectblackberry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Accept-Encoding negotiation and the gzip/deflate encoders used for response bodies
+public class Compression {
+
+    public enum Encoding {
+        GZIP("gzip", "-gz"),
+        DEFLATE("deflate", "-df");
+
+        private final String token;
+        private final String etagSuffix;
+
+        Encoding(String token, String etagSuffix) {
+            this.token = token;
+            this.etagSuffix = etagSuffix;
+        }
+
+        public String getToken() { return token; }
+        public String getEtagSuffix() { return etagSuffix; }
+
+        // strong ETags have to differ between the identity and the encoded representation
+        public String etag(String etag) {
+            return etag.substring(0, etag.length() - 1) + etagSuffix + "\"";
+        }
+    }
+
+    private static final ServerConfig config = ServerConfig.load();
+
+    // picks gzip over deflate when the client accepts both with the same q-value; null means identity
+    public static Encoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) return null;
+        double gzip = -1, deflate = -1; // -1 = not mentioned
+        for (String part : acceptEncoding.split(",")) {
+            String[] fields = part.split(";");
+            String coding = fields[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < fields.length; i++) {
+                String param = fields[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = q;
+            } else if (coding.equals("deflate")) {
+                deflate = q;
+            } else if (coding.equals("*")) {
+                gzip = gzip < 0 ? q : gzip;
+                deflate = deflate < 0 ? q : deflate;
+            }
+        }
+        if (gzip > 0 && gzip >= deflate) return Encoding.GZIP;
+        if (deflate > 0) return Encoding.DEFLATE;
+        return null;
+    }
+
+    // level for a content type, or 0 when bodies of this type (or this size) are sent as-is
+    public static int levelFor(String contentType, int length) {
+        if (length < config.getCompressionMinBytes()) return 0;
+        return config.getCompressionLevel(contentType);
+    }
+
+    public static byte[] compress(byte[] body, Encoding encoding, int level) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 3 + 64);
+        try (OutputStream os = wrap(out, encoding, level)) {
+            os.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // in-memory streams don't fail
+        }
+        return out.toByteArray();
+    }
+
+    public static OutputStream wrap(OutputStream out, Encoding encoding, int level) throws IOException {
+        if (encoding == Encoding.GZIP) {
+            // syncFlush so Writer.flush() really puts the bytes written so far on the wire
+            return new GZIPOutputStream(out, 8192, true) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+        Deflater deflater = new Deflater(level);
+        return new DeflaterOutputStream(out, deflater, 8192, true) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end(); // a custom Deflater is not released by DeflaterOutputStream
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.projectblackberry;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Counts the bytes passing through; the request filters use it to see what a handler sent
+public class CountingOutputStream extends FilterOutputStream {
+    private long count;
+
+    public CountingOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    // the exchange's response stream, wrapped once however many filters ask for it
+    public static CountingOutputStream of(HttpExchange exchange) {
+        OutputStream body = exchange.getResponseBody();
+        if (body instanceof CountingOutputStream counting) return counting;
+        CountingOutputStream counting = new CountingOutputStream(body);
+        exchange.setStreams(null, counting);
+        return counting;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        count += len;
+    }
+
+    public long getCount() { return count; }
+}
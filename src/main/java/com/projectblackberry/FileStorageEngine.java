@@ -0,0 +1,169 @@
+package com.projectblackberry;
+
+import com.projectblackberry.model.WeeklyChecklist;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// One file per week, replaced atomically on every save. New weeks are written in the configured
+// codec; a week that already has a file stays in that file's format, so a hand-edited JSON plan
+// stays JSON. Only with migrate on are weeks in another format rewritten in the configured codec
+// when first loaded, and the old file is kept next to it as <file>.bak.
+public class FileStorageEngine implements StorageEngine {
+    private final Path dataDir;
+    private final ChecklistCodec codec;
+    private final boolean migrate;
+    // modification time and size of the last file this engine wrote per path, to tell its own
+    // saves apart from edits made by someone else
+    private final Map<Path, String> written = new ConcurrentHashMap<>();
+
+    public FileStorageEngine(Path dataDir, ChecklistCodec codec, boolean migrate) {
+        this.dataDir = dataDir;
+        this.codec = codec;
+        this.migrate = migrate;
+    }
+
+    // synchronized with migrate(), so a migration can never overwrite a newer save
+    @Override
+    public synchronized void save(WeeklyChecklist checklist) throws IOException {
+        ChecklistCodec format = formatFor(checklist.getWeekId());
+        Path filePath = pathFor(checklist.getWeekId(), format);
+        // write next to the target and rename, so a crash mid-write never leaves a half-written week
+        Path tmp = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+        Files.write(tmp, format.encode(checklist));
+        written.put(filePath, signature(tmp)); // a rename keeps both, and recording first leaves no window
+        Files.move(tmp, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (migrate) {
+            moveOtherFormatsAside(checklist.getWeekId());
+        }
+        Log.info("Saved checklist to: " + filePath);
+    }
+
+    @Override
+    public void saveTaskChanges(WeeklyChecklist checklist, Collection<TaskChange> changes) throws IOException {
+        save(checklist); // a single file can only be rewritten as a whole
+    }
+
+    @Override
+    public WeeklyChecklist load(String weekId) {
+        try {
+            Path filePath = find(weekId);
+
+            if (filePath != null) {
+                WeeklyChecklist checklist = load(filePath);
+                Log.info("Loaded checklist from: " + filePath);
+                return checklist;
+            }
+            // file doesn't exist, return null
+        } catch (Exception e) {
+            Log.error("Error loading checklist " + weekId + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    // startup path: the caller already listed the file, so no exists() check and no per-file log line
+    public WeeklyChecklist load(Path file) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        ChecklistCodec format = ChecklistCodec.detect(data, 0, data.length);
+        WeeklyChecklist checklist = format.decode(data);
+        if (migrate && format != codec && checklist.getWeekId() != null) {
+            migrate(checklist, file);
+        }
+        return checklist;
+    }
+
+    private synchronized void migrate(WeeklyChecklist checklist, Path from) {
+        try {
+            if (!Files.exists(pathFor(checklist.getWeekId(), codec))) {
+                save(checklist);
+            }
+            moveOtherFormatsAside(checklist.getWeekId());
+            Log.info("Migrated " + from.getFileName() + " to " + codec.name().toLowerCase() + ", original kept as "
+                    + from.getFileName() + ".bak");
+        } catch (IOException e) {
+            Log.error("Could not migrate " + from + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean exists(String weekId) {
+        return find(weekId) != null;
+    }
+
+    // the file in the configured format if there is one, otherwise any other format; a week saved
+    // before ids were normalised may still be under its zero-padded spelling ("2025-W01")
+    private Path find(String weekId) {
+        Path found = findSpelled(weekId);
+        int key = WeekUtils.key(weekId);
+        if (found == null && key % 100 < 10 && weekId.equals(WeekUtils.weekId(key))) {
+            found = findSpelled(key / 100 + "-W0" + key % 100);
+        }
+        return found;
+    }
+
+    private Path findSpelled(String weekId) {
+        Path preferred = pathFor(weekId, codec);
+        if (Files.exists(preferred)) return preferred;
+        for (ChecklistCodec other : ChecklistCodec.values()) {
+            Path path = pathFor(weekId, other);
+            if (other != codec && Files.exists(path)) return path;
+        }
+        return null;
+    }
+
+    // the configured codec when migrating or for a new week, otherwise the format the week is already in
+    private ChecklistCodec formatFor(String weekId) {
+        if (migrate) return codec;
+        Path existing = find(weekId);
+        return existing != null ? ChecklistCodec.forFileName(existing.getFileName().toString()) : codec;
+    }
+
+    // renamed rather than deleted: the user's own file is never thrown away
+    private void moveOtherFormatsAside(String weekId) throws IOException {
+        for (ChecklistCodec other : ChecklistCodec.values()) {
+            Path path = pathFor(weekId, other);
+            if (other != codec && Files.exists(path)) {
+                Files.move(path, path.resolveSibling(path.getFileName() + ".bak"), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    // whether load(weekId) reads this very file; not so for a copy in another format that a
+    // migration will replace, or that is shadowed by a file in the configured codec
+    public boolean isWeekOfRecord(Path file) {
+        String name = file.getFileName().toString();
+        ChecklistCodec format = ChecklistCodec.forFileName(name);
+        if (format == null) return false;
+        if (migrate) return format == codec;
+        Path found = find(name.substring(0, name.length() - format.getExtension().length()));
+        return found != null && found.getFileName().equals(file.getFileName());
+    }
+
+    // true while the file is still exactly what save() put there
+    public boolean isOwnWrite(Path file) {
+        String signature = written.get(file);
+        if (signature == null) return false;
+        try {
+            return signature.equals(signature(file));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static String signature(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return attributes.lastModifiedTime() + "/" + attributes.size();
+    }
+
+    private Path pathFor(String weekId, ChecklistCodec format) {
+        return dataDir.resolve(weekId + format.getExtension());
+    }
+
+    public ChecklistCodec getCodec() { return codec; }
+}
@@ -0,0 +1,319 @@
+package com.projectblackberry;
+
+import com.projectblackberry.model.DayChecklist;
+import com.projectblackberry.model.TaskItem;
+import com.projectblackberry.model.WeeklyChecklist;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+// Append-only journal in front of the per-week files. Every save appends a record; records
+// queued while the previous fsync was running are written and fsynced together (group commit).
+// Once the journal grows past compactBytes, or every compactSeconds, the weeks it touched are
+// written out as snapshots and the journal starts over. On startup the journal is replayed.
+//
+// Record: [int length][int crc32][byte type][payload], length and crc cover type + payload.
+//   PUT  payload: the whole WeeklyChecklist in the configured codec (detected again on replay)
+//   TASK payload: UTF weekId, UTF date, UTF taskId, boolean completed, long updatedAt (absent in older journals)
+public class JournalStorageEngine implements StorageEngine {
+    private static final byte PUT = 1;
+    private static final byte TASK = 2;
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_BATCH = 256;
+
+    private final FileStorageEngine snapshots;
+    private final ChecklistCodec codec;
+    private final Path journalPath;
+    private final FileChannel channel;
+    private final long compactBytes;
+    private final long compactIntervalMillis;
+    // weeks whose latest state is in the journal but not yet in a snapshot; only the writer thread changes it after startup
+    private final Map<String, WeeklyChecklist> live = new ConcurrentHashMap<>();
+    private final BlockingQueue<Append> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean closed;
+    private long lastCompaction = System.currentTimeMillis();
+
+    private final LongAdder records = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder bytesAppended = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+
+    private static class Append {
+        final ByteBuffer data;
+        final Collection<WeeklyChecklist> checklists;
+        final int recordCount;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Append(ByteBuffer data, Collection<WeeklyChecklist> checklists, int recordCount) {
+            this.data = data;
+            this.checklists = checklists;
+            this.recordCount = recordCount;
+        }
+    }
+
+    public JournalStorageEngine(FileStorageEngine snapshots, ChecklistCodec codec, Path journalPath, long compactBytes, long compactSeconds) throws IOException {
+        this.snapshots = snapshots;
+        this.codec = codec;
+        this.journalPath = journalPath;
+        this.compactBytes = compactBytes;
+        this.compactIntervalMillis = TimeUnit.SECONDS.toMillis(compactSeconds);
+        this.channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recover();
+        compact(); // start from clean snapshots so the files on disk match what we serve
+        this.writer = new Thread(this::writeLoop, "checklist-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void save(WeeklyChecklist checklist) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeRecord(out, PUT, codec.encode(checklist));
+        append(new Append(ByteBuffer.wrap(out.toByteArray()), List.of(checklist), 1));
+    }
+
+    // one append, so the whole batch shares a single fsync
+    @Override
+    public void saveAll(Collection<WeeklyChecklist> checklists) throws IOException {
+        if (checklists.isEmpty()) return;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (WeeklyChecklist checklist : checklists) {
+            writeRecord(out, PUT, codec.encode(checklist));
+        }
+        append(new Append(ByteBuffer.wrap(out.toByteArray()), new ArrayList<>(checklists), checklists.size()));
+    }
+
+    @Override
+    public void saveTaskChanges(WeeklyChecklist checklist, Collection<TaskChange> changes) throws IOException {
+        if (changes.isEmpty()) return;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(changes.size() * 48);
+        for (TaskChange change : changes) {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(40);
+            DataOutputStream data = new DataOutputStream(payload);
+            data.writeUTF(checklist.getWeekId());
+            data.writeUTF(change.getDate());
+            data.writeUTF(change.getTaskId());
+            data.writeBoolean(change.isCompleted());
+            data.writeLong(change.getUpdatedAt());
+            writeRecord(out, TASK, payload.toByteArray());
+        }
+        append(new Append(ByteBuffer.wrap(out.toByteArray()), List.of(checklist), changes.size()));
+    }
+
+    @Override
+    public WeeklyChecklist load(String weekId) {
+        WeeklyChecklist checklist = live.get(weekId);
+        return checklist != null ? checklist : snapshots.load(weekId);
+    }
+
+    @Override
+    public boolean exists(String weekId) {
+        return live.containsKey(weekId) || snapshots.exists(weekId);
+    }
+
+    // blocks until the record is on disk
+    private void append(Append append) throws IOException {
+        if (closed) throw new IOException("Journal is closed");
+        queue.add(append);
+        try {
+            append.done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the journal", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    private static void writeRecord(ByteArrayOutputStream out, byte type, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(payload.length + 1);
+        data.writeInt((int) crc.getValue());
+        data.writeByte(type);
+        data.write(payload);
+    }
+
+    private void writeLoop() {
+        List<Append> batch = new ArrayList<>(MAX_BATCH);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Append first = queue.poll(250, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    commit(batch);
+                    batch.clear();
+                }
+                if (channel.size() >= compactBytes
+                        || (channel.size() > 0 && System.currentTimeMillis() - lastCompaction >= compactIntervalMillis)) {
+                    compact();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                Log.error("Journal compaction failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void commit(List<Append> batch) {
+        try {
+            ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+            long total = 0;
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = batch.get(i).data;
+                total += buffers[i].remaining();
+            }
+            long written = 0;
+            while (written < total) {
+                written += channel.write(buffers);
+            }
+            channel.force(false); // one fsync for the whole batch
+            commits.increment();
+            bytesAppended.add(total);
+            for (Append append : batch) {
+                for (WeeklyChecklist checklist : append.checklists) {
+                    live.put(checklist.getWeekId(), checklist);
+                }
+                records.add(append.recordCount);
+                append.done.complete(null);
+            }
+        } catch (IOException e) {
+            Log.error("Journal write failed: " + e.getMessage());
+            for (Append append : batch) {
+                append.done.completeExceptionally(e);
+            }
+        }
+    }
+
+    // snapshots first, truncate after: a crash in between only means replaying records that are already applied
+    private void compact() throws IOException {
+        for (WeeklyChecklist checklist : live.values()) {
+            snapshots.save(checklist);
+        }
+        channel.truncate(0);
+        channel.force(true);
+        live.clear();
+        lastCompaction = System.currentTimeMillis();
+        compactions.increment();
+    }
+
+    private void recover() throws IOException {
+        long size = channel.size();
+        if (size == 0) return;
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+            // keep reading until the whole file is in memory
+        }
+        buffer.flip();
+
+        long valid = 0;
+        int replayed = 0;
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int length = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+            if (length < 1 || length > buffer.remaining()) break; // torn write at the tail
+            byte[] record = new byte[length];
+            buffer.get(record);
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            if ((int) crc.getValue() != expectedCrc) break;
+            try {
+                replay(record);
+            } catch (IOException e) {
+                Log.warn("Journal: skipping unreadable record: " + e.getMessage());
+            }
+            valid = buffer.position();
+            replayed++;
+        }
+        if (valid < size) {
+            Log.warn("Journal: dropping " + (size - valid) + " trailing byte(s) of an incomplete write");
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+        Log.info("Journal: replayed " + replayed + " record(s) from " + journalPath);
+    }
+
+    private void replay(byte[] record) throws IOException {
+        byte type = record[0];
+        if (type == PUT) {
+            WeeklyChecklist checklist = ChecklistCodec.decodeAny(record, 1, record.length - 1);
+            live.put(checklist.getWeekId(), checklist);
+        } else if (type == TASK) {
+            DataInputStream data = new DataInputStream(new ByteArrayInputStream(record, 1, record.length - 1));
+            String weekId = data.readUTF();
+            String date = data.readUTF();
+            String taskId = data.readUTF();
+            boolean completed = data.readBoolean();
+            long updatedAt = data.available() >= Long.BYTES ? data.readLong() : 0;
+            WeeklyChecklist checklist = load(weekId);
+            if (checklist != null && setCompleted(checklist, date, taskId, completed, updatedAt)) {
+                live.put(weekId, checklist);
+            }
+        } else {
+            throw new IOException("unknown record type " + type);
+        }
+    }
+
+    private static boolean setCompleted(WeeklyChecklist checklist, String date, String taskId, boolean completed, long updatedAt) {
+        for (DayChecklist day : checklist.getDays().values()) {
+            if (!date.equals(day.getDate())) continue;
+            TaskItem task = day.getTask(taskId);
+            if (task != null) {
+                task.setCompleted(completed);
+                task.setUpdatedAt(updatedAt);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // drains the queue, writes the final snapshots and leaves an empty journal behind
+    @Override
+    public void close() {
+        closed = true;
+        // no interrupt: an interrupted FileChannel closes itself. The writer polls often enough to notice.
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+            for (Append late : queue) {
+                late.done.completeExceptionally(new IOException("Journal is closed"));
+            }
+            compact();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            Log.error("Error closing journal: " + e.getMessage());
+        }
+    }
+
+    // Stats
+    public long getRecordCount() { return records.sum(); }
+    public long getCommitCount() { return commits.sum(); }
+    public long getBytesAppended() { return bytesAppended.sum(); }
+    public long getCompactionCount() { return compactions.sum(); }
+}
@@ -0,0 +1,70 @@
+package com.projectblackberry;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free latency histogram in microseconds. Buckets are exact below 16us, then 8 linear
+// sub-buckets per power of two, so any recorded value is off by at most 12.5% and recording is
+// one array increment. Covers up to ~2^40us (12 days), which is plenty for a request.
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = 16;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = LINEAR_LIMIT + (MAX_EXPONENT - 3) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(indexOf(micros));
+        count.increment();
+        sumMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    static int indexOf(long micros) {
+        if (micros < LINEAR_LIMIT) return (int) micros;
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return Math.min(LINEAR_LIMIT + (exponent - 4) * SUB_BUCKETS + sub, BUCKETS - 1);
+    }
+
+    // largest value that lands in the bucket, so percentiles never under-report
+    static long upperBound(int index) {
+        if (index < LINEAR_LIMIT) return index;
+        int exponent = 4 + (index - LINEAR_LIMIT) / SUB_BUCKETS;
+        int sub = (index - LINEAR_LIMIT) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    // several quantiles from one pass over the buckets; quantiles must be ascending
+    public long[] percentiles(double... quantiles) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        long[] result = new long[quantiles.length];
+        if (total == 0) return result;
+        long seen = 0;
+        int q = 0;
+        for (int i = 0; i < BUCKETS && q < quantiles.length; i++) {
+            seen += snapshot[i];
+            while (q < quantiles.length && seen >= Math.ceil(quantiles[q] * total)) {
+                result[q++] = Math.min(upperBound(i), getMaxMicros());
+            }
+        }
+        return result;
+    }
+
+    // Stats
+    public long getCount() { return count.sum(); }
+    public long getSumMicros() { return sumMicros.sum(); }
+    public long getMaxMicros() { return maxMicros.get(); }
+}
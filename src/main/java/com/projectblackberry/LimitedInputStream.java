@@ -0,0 +1,59 @@
+package com.projectblackberry;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Request body guard: fails the read that would go past maxBytes. The flag survives whatever the
+// parser wraps the exception in, so the handler can still tell "too large" (413) from "bad input" (400).
+public class LimitedInputStream extends FilterInputStream {
+    private final long maxBytes;
+    private long count;
+    private boolean exceeded;
+
+    public LimitedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            advance(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        advance(skipped);
+        return skipped;
+    }
+
+    private void advance(long n) throws IOException {
+        count += n;
+        if (count > maxBytes) {
+            exceeded = true;
+            throw new IOException("Request body larger than " + maxBytes + " bytes");
+        }
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    public boolean isExceeded() { return exceeded; }
+    public long getCount() { return count; }
+}
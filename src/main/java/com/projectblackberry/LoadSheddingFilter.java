@@ -0,0 +1,34 @@
+package com.projectblackberry;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// Answers 503 straight away for requests the bounded executor could not queue
+public class LoadSheddingFilter extends Filter {
+    private static final byte[] BODY = "Error: Server busy, try again".getBytes(StandardCharsets.UTF_8);
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        if (!RequestExecutor.isShedding()) {
+            chain.doFilter(exchange);
+            return;
+        }
+        // this runs on the dispatcher thread, so don't wait for the body; just drop the connection afterwards
+        exchange.getResponseHeaders().add("Content-Type", "text/plain");
+        exchange.getResponseHeaders().add("Connection", "close");
+        exchange.getResponseHeaders().add("Retry-After", "1");
+        exchange.sendResponseHeaders(503, BODY.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(BODY);
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Rejects requests with 503 when the request queue is full";
+    }
+}
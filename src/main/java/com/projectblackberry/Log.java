@@ -0,0 +1,100 @@
+package com.projectblackberry;
+
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+// Application log. Messages below log.level are discarded on the calling thread; the rest go
+// through an AsyncLog to stdout (DEBUG, INFO) or stderr (WARN, ERROR). Stack traces are
+// formatted on the writer thread, not the request thread.
+public class Log {
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static final ServerConfig config = ServerConfig.load();
+    private static final Level threshold = Level.valueOf(config.getLogLevel().toUpperCase(Locale.ROOT));
+    private static final AsyncLog console = new AsyncLog("log-writer", config.getLogQueueCapacity(), new ConsoleSink());
+
+    public static boolean isDebugEnabled() {
+        return threshold == Level.DEBUG;
+    }
+
+    public static void debug(String message) {
+        log(Level.DEBUG, message, null);
+    }
+
+    public static void info(String message) {
+        log(Level.INFO, message, null);
+    }
+
+    public static void warn(String message) {
+        log(Level.WARN, message, null);
+    }
+
+    public static void error(String message) {
+        log(Level.ERROR, message, null);
+    }
+
+    public static void error(String message, Throwable error) {
+        log(Level.ERROR, message, error);
+    }
+
+    private static void log(Level level, String message, Throwable error) {
+        if (level.ordinal() >= threshold.ordinal()) {
+            console.log(level, message, error);
+        }
+    }
+
+    // called last in the shutdown hook so the final messages make it out
+    public static void shutdown() {
+        console.shutdown();
+    }
+
+    public static long getDroppedCount() {
+        return console.getDroppedCount();
+    }
+
+    private static class ConsoleSink implements AsyncLog.Sink {
+        private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+                .withZone(ZoneId.systemDefault());
+
+        // straight to the file descriptors, buffered: System.out flushes on every line
+        private final Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), 16 * 1024);
+        private final Writer err = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(FileDescriptor.err), StandardCharsets.UTF_8), 4 * 1024);
+
+        @Override
+        public void write(AsyncLog.Entry entry) throws IOException {
+            Writer target = entry.getLevel().ordinal() >= Level.WARN.ordinal() ? err : out;
+            target.write(TIME.format(Instant.ofEpochMilli(entry.getTime())));
+            target.write(' ');
+            target.write(String.format("%-5s", entry.getLevel()));
+            target.write(" [");
+            target.write(entry.getThread());
+            target.write("] ");
+            target.write(entry.getMessage());
+            target.write('\n');
+            if (entry.getError() != null) {
+                StringWriter trace = new StringWriter();
+                entry.getError().printStackTrace(new PrintWriter(trace));
+                target.write(trace.toString());
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+            err.flush();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.projectblackberry;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Process-wide counters and histograms, rendered as plain text (Prometheus exposition format) by
+// /metrics. Recording is a few LongAdder/array increments; all the work happens when someone scrapes.
+public class Metrics {
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    private static final Map<String, RouteStats> routes = new ConcurrentSkipListMap<>();
+    private static final Map<String, LatencyHistogram> timers = new ConcurrentSkipListMap<>();
+    private static final Map<String, Supplier<Number>> gauges = new ConcurrentSkipListMap<>();
+
+    public static class RouteStats {
+        final LongAdder requests = new LongAdder();
+        final LongAdder bytesOut = new LongAdder();
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        public void record(int status, long bytes, long nanos) {
+            requests.increment();
+            bytesOut.add(bytes);
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+            latency.recordNanos(nanos);
+        }
+    }
+
+    public static RouteStats route(String path) {
+        return routes.computeIfAbsent(path, p -> new RouteStats());
+    }
+
+    // named timing, e.g. "storage_save"; look it up once and keep the reference
+    public static LatencyHistogram timer(String name) {
+        return timers.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    // a value read at scrape time, e.g. a cache's hit counter
+    public static void gauge(String name, Supplier<Number> value) {
+        gauges.put(name, value);
+    }
+
+    public static String render() {
+        StringBuilder out = new StringBuilder(4096);
+        out.append("# TYPE http_requests_total counter\n");
+        routes.forEach((path, stats) -> line(out, "http_requests_total", "route", path, stats.requests.sum()));
+        out.append("# TYPE http_responses_total counter\n");
+        routes.forEach((path, stats) -> new TreeMap<>(stats.statuses).forEach((status, n) ->
+                out.append("http_responses_total{route=\"").append(path).append("\",status=\"").append(status)
+                        .append("\"} ").append(n.sum()).append('\n')));
+        out.append("# TYPE http_response_bytes_total counter\n");
+        routes.forEach((path, stats) -> line(out, "http_response_bytes_total", "route", path, stats.bytesOut.sum()));
+        out.append("# TYPE http_request_duration_us summary\n");
+        routes.forEach((path, stats) -> summary(out, "http_request_duration_us", "route", path, stats.latency));
+        out.append("# TYPE duration_us summary\n");
+        timers.forEach((name, histogram) -> summary(out, "duration_us", "op", name, histogram));
+        gauges.forEach((name, value) -> {
+            Number n = value.get();
+            out.append(name).append(' ');
+            if (n instanceof Double || n instanceof Float) {
+                out.append(String.format(Locale.ROOT, "%.4f", n.doubleValue()));
+            } else {
+                out.append(n.longValue());
+            }
+            out.append('\n');
+        });
+        return out.toString();
+    }
+
+    private static void line(StringBuilder out, String name, String label, String value, long n) {
+        out.append(name).append('{').append(label).append("=\"").append(value).append("\"} ").append(n).append('\n');
+    }
+
+    private static void summary(StringBuilder out, String name, String label, String value, LatencyHistogram histogram) {
+        long[] percentiles = histogram.percentiles(QUANTILES);
+        for (int i = 0; i < QUANTILES.length; i++) {
+            out.append(name).append('{').append(label).append("=\"").append(value).append("\",quantile=\"")
+                    .append(QUANTILES[i]).append("\"} ").append(percentiles[i]).append('\n');
+        }
+        line(out, name + "_count", label, value, histogram.getCount());
+        line(out, name + "_sum", label, value, histogram.getSumMicros());
+        line(out, name + "_max", label, value, histogram.getMaxMicros());
+    }
+}
@@ -0,0 +1,36 @@
+package com.projectblackberry;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+
+// Outermost filter on every context: counts the request, its status, the body bytes sent
+// (after compression) and the time until the handler returned. Event streams and parked polls
+// outlive their handler, so they are not counted here.
+public class MetricsFilter extends Filter {
+    private final Metrics.RouteStats stats;
+
+    public MetricsFilter(String path) {
+        this.stats = Metrics.route(path);
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        long started = System.nanoTime();
+        CountingOutputStream out = CountingOutputStream.of(exchange);
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            if (!ChecklistEvents.isDetached(exchange)) {
+                int status = exchange.getResponseCode(); // -1 if the handler failed before sending headers
+                stats.record(status, out.getCount(), System.nanoTime() - started);
+            }
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Records request counts, status codes, bytes out and latency per route";
+    }
+}
@@ -0,0 +1,93 @@
+package com.projectblackberry;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// LRU cache of rendered checklist pages, one entry per week. An entry only counts as a hit
+// while its version matches the checklist's current version.
+public class PageCache {
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private static class Entry {
+        final long version;
+        final CachedPage page;
+        final long size; // CachedPage builds every variant up front, so this is the page's final size
+
+        Entry(long version, CachedPage page) {
+            this.version = version;
+            this.page = page;
+            this.size = page.size();
+        }
+
+        long size() {
+            return size;
+        }
+    }
+
+    public PageCache(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    public CachedPage get(String weekId, long version) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(weekId);
+        }
+        if (entry != null && entry.version == version) {
+            hits.increment();
+            return entry.page;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String weekId, long version, CachedPage page) {
+        Entry entry = new Entry(version, page);
+        if (maxEntries <= 0 || entry.size() > maxBytes) return;
+        synchronized (this) {
+            Entry previous = entries.get(weekId);
+            if (previous != null && previous.version > version) {
+                return; // a newer render got here first
+            }
+            Entry replaced = entries.put(weekId, entry);
+            if (replaced != null) {
+                totalBytes -= replaced.size();
+            }
+            totalBytes += entry.size();
+            evictIfNeeded();
+        }
+    }
+
+    public synchronized void invalidate(String weekId) {
+        Entry removed = entries.remove(weekId);
+        if (removed != null) {
+            totalBytes -= removed.size();
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || totalBytes > maxBytes) && it.hasNext()) {
+            totalBytes -= it.next().getValue().size();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    // Stats
+    public synchronized int size() { return entries.size(); }
+    public synchronized long getTotalBytes() { return totalBytes; }
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getEvictionCount() { return evictions.sum(); }
+}
@@ -0,0 +1,23 @@
+package com.projectblackberry;
+
+// The start every HTML page shares: doctype, meta tags and a link to the page's stylesheet
+// (see StaticAssets). Kept in one place so the pages stay alike.
+final class PageStyle {
+
+    private PageStyle() {
+    }
+
+    // everything up to and including <body>; title is markup, so escape it or put a template slot in it.
+    // stylesheet names a StaticAssets stylesheet, e.g. "search.css"
+    static String head(String title, String stylesheet) {
+        return "<!DOCTYPE html>\n"
+                + "<html lang=\"en\">\n"
+                + "<head>\n"
+                + "    <meta charset=\"UTF-8\">\n"
+                + "    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n"
+                + "    <title>" + title + "</title>\n"
+                + "    <link rel=\"stylesheet\" href=\"" + StaticAssets.url(stylesheet) + "\">\n"
+                + "</head>\n"
+                + "<body>\n";
+    }
+}
@@ -0,0 +1,161 @@
+package com.projectblackberry;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Executor handed to HttpServer. Either one virtual thread per request or a bounded
+// platform pool that sheds load with a 503 once its queue is full.
+public class RequestExecutor implements Executor {
+    private static final ThreadLocal<Boolean> SHEDDING = new ThreadLocal<>();
+    private static final int SHED_THREADS = 2;
+
+    private final ServerConfig.ExecutorMode mode;
+    private final ExecutorService delegate;
+    private final ThreadPoolExecutor pool; // null unless bounded
+    private final ExecutorService shedPool; // null unless bounded
+    private final int queueCapacity;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private ScheduledExecutorService statsReporter;
+
+    private RequestExecutor(ServerConfig.ExecutorMode mode, ExecutorService delegate, ExecutorService shedPool,
+                            int queueCapacity) {
+        this.mode = mode;
+        this.delegate = delegate;
+        this.pool = delegate instanceof ThreadPoolExecutor ? (ThreadPoolExecutor) delegate : null;
+        this.shedPool = shedPool;
+        this.queueCapacity = queueCapacity;
+    }
+
+    // returns null for DISPATCHER mode, which keeps the JDK default of running handlers on the dispatcher thread
+    public static RequestExecutor create(ServerConfig config) {
+        switch (config.getExecutorMode()) {
+            case DISPATCHER:
+                return null;
+            case VIRTUAL:
+                ExecutorService virtual = newVirtualThreadExecutor();
+                if (virtual != null) {
+                    return new RequestExecutor(ServerConfig.ExecutorMode.VIRTUAL, virtual, null, 0);
+                }
+                Log.warn("virtual threads need Java 21+, falling back to bounded pool");
+                return createBounded(config);
+            default:
+                return createBounded(config);
+        }
+    }
+
+    private static RequestExecutor createBounded(ServerConfig config) {
+        int threads = Math.max(1, config.getPoolSize());
+        int capacity = Math.max(1, config.getQueueCapacity());
+        RequestExecutor[] holder = new RequestExecutor[1];
+        // when the queue is full the task runs with the shedding flag set, so LoadSheddingFilter
+        // answers 503 instead of the connection being dropped. The JDK task still reads the request
+        // line and headers first, so it goes to a couple of threads of its own rather than the
+        // dispatcher, where one slow client would stall accepting everyone else. Only when those
+        // are backed up as well does the dispatcher thread run it itself.
+        RejectedExecutionHandler shed = (task, executor) -> holder[0].runShed(task);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacity), namedThreads("http-worker"), shed);
+        pool.allowCoreThreadTimeOut(true);
+        ThreadPoolExecutor shedPool = new ThreadPoolExecutor(SHED_THREADS, SHED_THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacity), namedThreads("http-shed"), new ThreadPoolExecutor.CallerRunsPolicy());
+        shedPool.allowCoreThreadTimeOut(true);
+        holder[0] = new RequestExecutor(ServerConfig.ExecutorMode.BOUNDED, pool, shedPool, capacity);
+        return holder[0];
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        delegate.execute(() -> {
+            inFlight.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                inFlight.decrementAndGet();
+                completed.increment();
+            }
+        });
+    }
+
+    private void runShed(Runnable task) {
+        rejected.increment();
+        shedPool.execute(() -> {
+            SHEDDING.set(Boolean.TRUE);
+            try {
+                task.run();
+            } finally {
+                SHEDDING.remove();
+            }
+        });
+    }
+
+    static boolean isShedding() {
+        return SHEDDING.get() != null;
+    }
+
+    public void startStatsReporter(int intervalSeconds) {
+        if (intervalSeconds <= 0) return;
+        statsReporter = Executors.newSingleThreadScheduledExecutor(namedThreads("executor-stats"));
+        statsReporter.scheduleAtFixedRate(() -> Log.info(describe()),
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public void shutdown() {
+        if (statsReporter != null) {
+            statsReporter.shutdownNow();
+        }
+        delegate.shutdown();
+        if (shedPool != null) {
+            shedPool.shutdown();
+        }
+    }
+
+    // Stats
+    public ServerConfig.ExecutorMode getMode() { return mode; }
+    public int getInFlight() { return inFlight.get(); }
+    public int getQueueDepth() { return pool != null ? pool.getQueue().size() : 0; }
+    public int getQueueCapacity() { return queueCapacity; }
+    public long getCompletedCount() { return completed.sum(); }
+    public long getRejectedCount() { return rejected.sum(); }
+
+    public String describe() {
+        StringBuilder sb = new StringBuilder("Executor[").append(mode.name().toLowerCase());
+        if (pool != null) {
+            sb.append(" threads=").append(pool.getPoolSize()).append('/').append(pool.getMaximumPoolSize());
+            sb.append(" queue=").append(getQueueDepth()).append('/').append(queueCapacity);
+        }
+        sb.append(" inFlight=").append(getInFlight());
+        sb.append(" completed=").append(getCompletedCount());
+        sb.append(" rejected=").append(getRejectedCount());
+        return sb.append(']').toString();
+    }
+}
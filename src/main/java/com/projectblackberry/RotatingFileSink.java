@@ -0,0 +1,75 @@
+package com.projectblackberry;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Writes preformatted lines to a file and rolls it over at maxBytes: access.log becomes
+// access.log.1, .1 becomes .2 and so on, keeping at most maxFiles old files
+public class RotatingFileSink implements AsyncLog.Sink {
+    private final Path path;
+    private final long maxBytes;
+    private final int maxFiles;
+    private OutputStream out;
+    private long size;
+
+    public RotatingFileSink(Path path, long maxBytes, int maxFiles) throws IOException {
+        this.path = path;
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        open();
+    }
+
+    private void open() throws IOException {
+        out = new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 32 * 1024);
+        size = Files.size(path);
+    }
+
+    @Override
+    public void write(AsyncLog.Entry entry) throws IOException {
+        byte[] line = (entry.getMessage() + "\n").getBytes(StandardCharsets.UTF_8);
+        if (size > 0 && size + line.length > maxBytes) {
+            rotate();
+        }
+        out.write(line);
+        size += line.length;
+    }
+
+    private void rotate() throws IOException {
+        out.close();
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path older = rolled(i);
+            if (Files.exists(older)) {
+                Files.move(older, rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 0) {
+            Files.move(path, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(path);
+        }
+        open();
+    }
+
+    private Path rolled(int n) {
+        return path.resolveSibling(path.getFileName() + "." + n);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
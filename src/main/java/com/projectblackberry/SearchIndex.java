@@ -0,0 +1,282 @@
+package com.projectblackberry;
+
+import com.projectblackberry.model.DayChecklist;
+import com.projectblackberry.model.ResourceLink;
+import com.projectblackberry.model.TaskItem;
+import com.projectblackberry.model.WeeklyChecklist;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index over task descriptions, resource titles and categories of every week.
+// Terms live in a sorted map, so a query word matches every term it is a prefix of ("alg" finds
+// "algorithms"), which is what half-typed phone queries need. A task's category is its priority,
+// which only matches as a whole word, or "h" would turn up every HIGH task. Re-indexing a week
+// replaces all of its documents; the index doesn't depend on which weeks the checklist cache
+// currently holds.
+public class SearchIndex {
+    private static final double EXACT_TEXT = 3.0;
+    private static final double PREFIX_TEXT = 2.0;
+    private static final double EXACT_CATEGORY = 1.5;
+    private static final double PREFIX_CATEGORY = 1.0;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Set<Integer>> postings = new TreeMap<>();
+    private final Map<String, Set<Integer>> priorityPostings = new HashMap<>(); // whole words only
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final Map<String, List<Integer>> documentsByWeek = new HashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    public static class Document {
+        final String weekId;
+        final String date;   // null for resources
+        final String taskId; // null for resources
+        final String text;
+        final String url;    // resources only
+        final String category;
+        final Set<String> textTerms;
+        final Set<String> categoryTerms;
+
+        Document(String weekId, String date, String taskId, String text, String url, String category) {
+            this.weekId = weekId;
+            this.date = date;
+            this.taskId = taskId;
+            this.text = text != null ? text : "";
+            this.url = url;
+            this.category = category;
+            this.textTerms = tokenize(this.text);
+            this.categoryTerms = tokenize(category);
+        }
+
+        // Getters
+        public String getWeekId() { return weekId; }
+        public String getDate() { return date; }
+        public String getTaskId() { return taskId; }
+        public String getText() { return text; }
+        public String getUrl() { return url; }
+        public String getCategory() { return category; }
+        public boolean isTask() { return taskId != null; }
+    }
+
+    public static class Match {
+        final Document document;
+        final double score;
+
+        Match(Document document, double score) {
+            this.document = document;
+            this.score = score;
+        }
+
+        // Getters
+        public Document getDocument() { return document; }
+        public double getScore() { return score; }
+    }
+
+    // (re)indexes a week; documents are built outside the lock so readers only wait for the swap
+    public void index(String weekId, WeeklyChecklist checklist) {
+        List<Document> docs = documentsOf(weekId, checklist);
+        lock.writeLock().lock();
+        try {
+            removeLocked(weekId);
+            insertLocked(weekId, docs);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // for background indexing of weeks read from disk: never replaces what an import put there meanwhile
+    public void indexIfAbsent(String weekId, WeeklyChecklist checklist) {
+        List<Document> docs = documentsOf(weekId, checklist);
+        lock.writeLock().lock();
+        try {
+            if (!documentsByWeek.containsKey(weekId)) {
+                insertLocked(weekId, docs);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(String weekId) {
+        lock.readLock().lock();
+        try {
+            return documentsByWeek.containsKey(weekId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<Document> documentsOf(String weekId, WeeklyChecklist checklist) {
+        List<Document> docs = new ArrayList<>();
+        for (DayChecklist day : checklist.getDays().values()) {
+            for (TaskItem task : day.getTasks()) {
+                docs.add(new Document(weekId, day.getDate(), task.getId(), task.getDescription(), null, task.getPriority().name()));
+            }
+        }
+        if (checklist.getResources() != null) {
+            for (ResourceLink resource : checklist.getResources()) {
+                docs.add(new Document(weekId, null, null, resource.getTitle(), resource.getUrl(), resource.getCategory()));
+            }
+        }
+        return docs;
+    }
+
+    private void insertLocked(String weekId, List<Document> docs) {
+        List<Integer> ids = new ArrayList<>(docs.size());
+        for (Document doc : docs) {
+            int id = nextId.getAndIncrement();
+            documents.put(id, doc);
+            ids.add(id);
+            for (String term : doc.textTerms) {
+                postings.computeIfAbsent(term, t -> new HashSet<>()).add(id);
+            }
+            Map<String, Set<Integer>> categoryPostings = doc.isTask() ? priorityPostings : postings;
+            for (String term : doc.categoryTerms) {
+                categoryPostings.computeIfAbsent(term, t -> new HashSet<>()).add(id);
+            }
+        }
+        documentsByWeek.put(weekId, ids);
+    }
+
+    public void remove(String weekId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(weekId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(String weekId) {
+        List<Integer> ids = documentsByWeek.remove(weekId);
+        if (ids == null) return;
+        for (Integer id : ids) {
+            Document doc = documents.remove(id);
+            Set<String> terms = new HashSet<>(doc.textTerms);
+            if (doc.isTask()) {
+                removePosting(priorityPostings, doc.categoryTerms, id);
+            } else {
+                terms.addAll(doc.categoryTerms);
+            }
+            removePosting(postings, terms, id);
+        }
+    }
+
+    private static void removePosting(Map<String, Set<Integer>> postings, Set<String> terms, Integer id) {
+        for (String term : terms) {
+            Set<Integer> docIds = postings.get(term);
+            if (docIds != null && docIds.remove(id) && docIds.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    // every query word has to match (as a whole term or a prefix of one); best matches first,
+    // ties broken by the more recent week
+    public List<Match> search(String query, int limit) {
+        List<String> words = new ArrayList<>(tokenize(query));
+        if (words.isEmpty()) return Collections.emptyList();
+
+        lock.readLock().lock();
+        try {
+            Set<Integer> candidates = null;
+            for (String word : words) {
+                Set<Integer> matching = new HashSet<>();
+                for (Set<Integer> ids : postings.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                    matching.addAll(ids);
+                }
+                matching.addAll(priorityPostings.getOrDefault(word, Collections.emptySet()));
+                if (candidates == null) {
+                    candidates = matching;
+                } else {
+                    candidates.retainAll(matching);
+                }
+                if (candidates.isEmpty()) return Collections.emptyList();
+            }
+
+            List<Match> matches = new ArrayList<>(candidates.size());
+            for (Integer id : candidates) {
+                Document doc = documents.get(id);
+                double score = 0;
+                for (String word : words) {
+                    score += score(doc, word);
+                }
+                matches.add(new Match(doc, score));
+            }
+            matches.sort((a, b) -> {
+                int byScore = Double.compare(b.score, a.score);
+                if (byScore != 0) return byScore;
+                int byWeek = Integer.compare(WeekUtils.key(b.document.weekId), WeekUtils.key(a.document.weekId));
+                if (byWeek != 0) return byWeek;
+                return Integer.compare(a.document.text.length(), b.document.text.length());
+            });
+            return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static double score(Document doc, String word) {
+        if (doc.textTerms.contains(word)) return EXACT_TEXT;
+        for (String term : doc.textTerms) {
+            if (term.startsWith(word)) return PREFIX_TEXT;
+        }
+        if (doc.categoryTerms.contains(word)) return EXACT_CATEGORY;
+        return PREFIX_CATEGORY;
+    }
+
+    // lower case, accents stripped ("Café" -> "cafe"), split on anything that isn't a letter or digit
+    static Set<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) return Collections.emptySet();
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        Set<String> terms = new LinkedHashSet<>();
+        for (String term : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    // Stats
+    public int getWeekCount() {
+        lock.readLock().lock();
+        try {
+            return documentsByWeek.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size() + priorityPostings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.projectblackberry;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Server settings, read from -Dblackberry.<key>=... or the BLACKBERRY_<KEY> environment variable
+public class ServerConfig {
+    private static final String PROPERTY_PREFIX = "blackberry.";
+    private static final String ENV_PREFIX = "BLACKBERRY_";
+    private static final ServerConfig INSTANCE = new ServerConfig();
+
+    public enum ExecutorMode { DISPATCHER, VIRTUAL, BOUNDED }
+
+    private final int port;
+    private final int backlog;
+    private final ExecutorMode executorMode;
+    private final int poolSize;
+    private final int queueCapacity;
+    private final int statsIntervalSeconds;
+    private final int checklistCacheEntries;
+    private final long checklistCacheBytes;
+    private final int pageCacheEntries;
+    private final long pageCacheBytes;
+    private final int compressionMinBytes;
+    private final int compressionLevel;
+    private final Map<String, Integer> compressionLevels = new ConcurrentHashMap<>();
+    private final int streamThresholdTasks;
+    private final int writeBehindDelayMillis;
+    private final long importMaxBytes;
+    private final long requestMaxBytes;
+    private final String dataDir;
+    private final String storageEngine;
+    private final ChecklistCodec codec;
+    private final boolean codecMigration;
+    private final long journalCompactBytes;
+    private final int journalCompactSeconds;
+    private final boolean lazyLoading;
+    private final String logLevel;
+    private final int logQueueCapacity;
+    private final String accessLog;
+    private final long accessLogBytes;
+    private final int accessLogFiles;
+    private final int eventsMaxConnections;
+    private final boolean watching;
+    private final int watchDebounceMillis;
+    private final int rangePageWeeks;
+    private final int rangeThreads;
+
+    private ServerConfig() {
+        this.port = getInt("port", 8080);
+        this.backlog = getInt("backlog", 50);
+        this.executorMode = ExecutorMode.valueOf(get("executor", "bounded").toUpperCase(Locale.ROOT));
+        this.poolSize = getInt("executor.threads", Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        this.queueCapacity = getInt("executor.queue", 64);
+        this.statsIntervalSeconds = getInt("executor.stats", 0);
+        this.checklistCacheEntries = getInt("cache.weeks", 256);
+        this.checklistCacheBytes = getInt("cache.weeks.mb", 32) * 1024L * 1024L;
+        this.pageCacheEntries = getInt("cache.pages", 32);
+        this.pageCacheBytes = getInt("cache.pages.mb", 8) * 1024L * 1024L;
+        this.compressionMinBytes = getInt("compression.min", 512);
+        this.compressionLevel = clampLevel(getInt("compression.level", 6));
+        this.streamThresholdTasks = getInt("stream.tasks", 200);
+        this.writeBehindDelayMillis = getInt("writebehind.delay.ms", 2000);
+        this.importMaxBytes = getInt("import.max.mb", 16) * 1024L * 1024L;
+        this.requestMaxBytes = getInt("request.max.kb", 256) * 1024L;
+        this.dataDir = get("data.dir", "data/checklists");
+        this.storageEngine = get("storage", "files");
+        this.codec = ChecklistCodec.valueOf(get("codec", "json").toUpperCase(Locale.ROOT));
+        this.codecMigration = "on".equalsIgnoreCase(get("codec.migrate", "off"));
+        this.journalCompactBytes = getInt("journal.compact.kb", 1024) * 1024L;
+        this.journalCompactSeconds = getInt("journal.compact.seconds", 300);
+        this.lazyLoading = "lazy".equalsIgnoreCase(get("load", "eager"));
+        this.logLevel = get("log.level", "info");
+        this.logQueueCapacity = getInt("log.queue", 8192);
+        this.accessLog = get("log.access", "logs/access.log");
+        this.accessLogBytes = getInt("log.access.mb", 10) * 1024L * 1024L;
+        this.accessLogFiles = getInt("log.access.files", 5);
+        this.eventsMaxConnections = getInt("events.max", 256);
+        this.watching = !"off".equalsIgnoreCase(get("watch", "on"));
+        this.watchDebounceMillis = getInt("watch.debounce.ms", 300);
+        this.rangePageWeeks = getInt("range.weeks", 8);
+        this.rangeThreads = getInt("range.threads", Runtime.getRuntime().availableProcessors());
+    }
+
+    public static ServerConfig load() {
+        return INSTANCE;
+    }
+
+    // Getters
+    public int getPort() { return port; }
+    public int getBacklog() { return backlog; }
+    public ExecutorMode getExecutorMode() { return executorMode; }
+    public int getPoolSize() { return poolSize; }
+    public int getQueueCapacity() { return queueCapacity; }
+    public int getStatsIntervalSeconds() { return statsIntervalSeconds; }
+    public int getChecklistCacheEntries() { return checklistCacheEntries; }
+    public long getChecklistCacheBytes() { return checklistCacheBytes; }
+    public int getPageCacheEntries() { return pageCacheEntries; }
+    public long getPageCacheBytes() { return pageCacheBytes; }
+    public int getCompressionMinBytes() { return compressionMinBytes; }
+    public int getStreamThresholdTasks() { return streamThresholdTasks; }
+    public int getWriteBehindDelayMillis() { return writeBehindDelayMillis; }
+    public long getImportMaxBytes() { return importMaxBytes; }
+    public long getRequestMaxBytes() { return requestMaxBytes; }
+    public String getDataDir() { return dataDir; }
+    public String getStorageEngine() { return storageEngine; }
+    public ChecklistCodec getCodec() { return codec; }
+    public boolean isCodecMigration() { return codecMigration; }
+    public long getJournalCompactBytes() { return journalCompactBytes; }
+    public int getJournalCompactSeconds() { return journalCompactSeconds; }
+    public boolean isLazyLoading() { return lazyLoading; }
+    public String getLogLevel() { return logLevel; }
+    public int getLogQueueCapacity() { return logQueueCapacity; }
+    // empty or "off" disables the access log
+    public String getAccessLog() { return accessLog; }
+    public long getAccessLogBytes() { return accessLogBytes; }
+    public int getAccessLogFiles() { return accessLogFiles; }
+    public int getEventsMaxConnections() { return eventsMaxConnections; }
+    public boolean isWatching() { return watching; }
+    public int getWatchDebounceMillis() { return watchDebounceMillis; }
+    public int getRangePageWeeks() { return rangePageWeeks; }
+    public int getRangeThreads() { return rangeThreads; }
+
+    // compression.level.<subtype> (e.g. compression.level.html=9) overrides compression.level; 0 disables
+    public int getCompressionLevel(String contentType) {
+        if (contentType == null) return compressionLevel;
+        int slash = contentType.indexOf('/');
+        int semicolon = contentType.indexOf(';');
+        String subtype = contentType.substring(slash + 1, semicolon >= 0 ? semicolon : contentType.length())
+                .trim().toLowerCase(Locale.ROOT);
+        return compressionLevels.computeIfAbsent(subtype,
+                key -> clampLevel(getInt("compression.level." + key, compressionLevel)));
+    }
+
+    private static int clampLevel(int level) {
+        return Math.max(0, Math.min(9, level));
+    }
+
+    static String get(String key, String defaultValue) {
+        String value = System.getProperty(PROPERTY_PREFIX + key);
+        if (value == null) {
+            value = System.getenv(ENV_PREFIX + key.replace('.', '_').toUpperCase(Locale.ROOT));
+        }
+        return value != null && !value.isBlank() ? value.trim() : defaultValue;
+    }
+
+    static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Warning: ignoring invalid " + PROPERTY_PREFIX + key + "=" + value);
+            return defaultValue;
+        }
+    }
+}
@@ -1,106 +1,436 @@
 package com.projectblackberry;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.projectblackberry.model.WeeklyChecklist;
 import com.projectblackberry.model.DayChecklist;
+import com.projectblackberry.model.ResourceLink;
 import com.projectblackberry.model.TaskItem;
+import com.projectblackberry.model.TimeParser;
+import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class ServerMain {
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
-    private static final Map<String, WeeklyChecklist> checklists = new ConcurrentHashMap<>();
+    private static final ServerConfig config = ServerConfig.load();
+    private static final ChecklistCache checklists = new ChecklistCache(
+            config.getChecklistCacheEntries(), config.getChecklistCacheBytes(), ServerMain::loadChecklist);
+    private static final PageCache pageCache = new PageCache(config.getPageCacheEntries(), config.getPageCacheBytes());
+    private static final ChecklistWriteBehind writeBehind = new ChecklistWriteBehind(config.getWriteBehindDelayMillis());
+    // lazy loading: weeks that exist on disk but haven't been parsed yet
+    private static final Map<String, java.nio.file.Path> lazyIndex = new ConcurrentHashMap<>();
+    private static AccessLogFilter accessLog; // null when log.access is off
+    private static final SearchIndex searchIndex = new SearchIndex();
+    private static final StatsIndex stats = new StatsIndex();
+    private static final ChecklistEvents events = new ChecklistEvents(config.getEventsMaxConnections());
+    // loads and renders the weeks of a /checklist?from=&to= page side by side; not the request pool,
+    // whose workers would end up waiting on tasks queued behind themselves
+    private static final ExecutorService rangeWorkers = Executors.newFixedThreadPool(
+            Math.max(1, config.getRangeThreads()), RequestExecutor.namedThreads("range-worker"));
 
     public static void main(String[] args) throws IOException {
+        // the JDK server writes headers and body separately; with Nagle's algorithm on, the body
+        // then waits for the client's delayed ACK, ~40 ms on every response
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        AsyncLog accessLogWriter = openAccessLog();
         loadAllChecklists();
-        
-        int port = 8080; // TODO: make this configurable maybe?
-        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
-
-        server.createContext("/", new HomeHandler());
-        server.createContext("/today", new TodayHandler());
-        server.createContext("/setup", new SetupHandler());
-        server.createContext("/import", new ImportHandler());
-        server.createContext("/checklist", new ChecklistHandler());
-        server.createContext("/navigator", new NavigatorHandler());
-
-        server.setExecutor(null); // using default executor
-        System.out.println("Project BlackBerry server running on port " + port);
-        System.out.println("Endpoints:");
-        System.out.println("  GET  /              (Home/Setup)");
-        System.out.println("  GET  /today         (Legacy home)");
-        System.out.println("  GET  /setup         (Setup guide)");
-        System.out.println("  POST /import?week=2025-W1");
-        System.out.println("  GET  /checklist?week=2025-W1");
-        System.out.println("  GET  /navigator");
+        indexLazyWeeks();
+        ChecklistWatcher watcher = startWatcher();
+
+        int port = config.getPort();
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), config.getBacklog());
+
+        createContext(server, "/", new HomeHandler());
+        createContext(server, "/today", new TodayHandler());
+        createContext(server, "/setup", new SetupHandler());
+        createContext(server, "/import", new ImportHandler());
+        createContext(server, "/checklist", new ChecklistHandler());
+        createContext(server, "/navigator", new NavigatorHandler());
+        createContext(server, "/tasks", new TaskHandler());
+        createContext(server, "/search", new SearchHandler());
+        createContext(server, "/stats", new StatsHandler());
+        createContext(server, "/sync", new SyncHandler());
+        createContext(server, "/events", new EventsHandler());
+        createContext(server, "/metrics", new MetricsHandler());
+        createContext(server, "/static/", new StaticHandler());
+
+        RequestExecutor executor = RequestExecutor.create(config);
+        server.setExecutor(executor); // null keeps the JDK dispatcher thread
+        if (executor != null) {
+            executor.startStatsReporter(config.getStatsIntervalSeconds());
+        }
+        registerGauges(executor);
+        Log.info("Project BlackBerry server running on port " + port);
+        Log.info("Executor: " + (executor != null ? executor.describe() : "dispatcher thread"));
+        Log.info("Endpoints:");
+        Log.info("  GET  /              (Home/Setup)");
+        Log.info("  GET  /today         (Legacy home)");
+        Log.info("  GET  /setup         (Setup guide)");
+        Log.info("  POST /import?week=2025-W1");
+        Log.info("  GET  /checklist?week=2025-W1");
+        Log.info("  GET  /navigator");
+        Log.info("  POST /tasks?key=2025-W1-2025-12-29-1&completed=true");
+        Log.info("  POST /sync?week=2025-W1");
+        Log.info("  GET  /events?week=2025-W1 (SSE, or &poll=1)");
+        Log.info("  GET  /search?q=algorithms");
+        Log.info("  GET  /stats");
+        Log.info("  GET  /metrics");
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            events.shutdown(); // open streams would otherwise hold up stop()
+            server.stop(1);
+            if (watcher != null) {
+                watcher.stop();
+            }
+            writeBehind.shutdown(); // pending task edits must reach the disk
+            ChecklistStorage.close();
+            if (executor != null) {
+                executor.shutdown();
+            }
+            if (accessLogWriter != null) {
+                accessLogWriter.shutdown();
+            }
+            Log.shutdown(); // last, so everything above still gets logged
+        }, "shutdown"));
         server.start();
         // server is now running
     }
 
+    // every replacement of a week goes through here so derived caches stay in step
+    private static void putChecklist(String weekId, WeeklyChecklist checklist) {
+        WeeklyChecklist previous = checklists.getIfPresent(weekId);
+        stats.index(weekId, checklist); // before the cache, so no toggle can reach it half-counted
+        checklists.put(weekId, checklist);
+        pageCache.invalidate(weekId);
+        searchIndex.index(weekId, checklist);
+        if (events.hasListeners(weekId)) {
+            events.publish(weekId, replacementEvent(previous, checklist));
+        }
+    }
+
+    // open pages can swap task rows whose text, priority, time or state changed; anything else
+    // (tasks added or removed, other days, planned times, resources) makes them reload
+    private static ChecklistEvents.Event replacementEvent(WeeklyChecklist previous, WeeklyChecklist checklist) {
+        long id = checklist.getVersion();
+        if (previous == null || !sameLayout(previous, checklist)) {
+            return new ChecklistEvents.Event(id, "reload", "{}");
+        }
+        ObjectNode data = objectMapper.createObjectNode();
+        ArrayNode rows = data.putArray("rows");
+        for (DayChecklist day : checklist.getDays().values()) {
+            DayChecklist before = previous.getDays().get(day.getDate());
+            for (int i = 0; i < day.getTasks().size(); i++) {
+                TaskItem task = day.getTasks().get(i);
+                TaskItem old = before.getTasks().get(i);
+                if (!Objects.equals(task.getDescription(), old.getDescription())
+                        || !Objects.equals(task.getPriority(), old.getPriority())
+                        || !Objects.equals(task.getEstimatedTime(), old.getEstimatedTime())
+                        || task.isCompleted() != old.isCompleted()) {
+                    rows.addObject()
+                            .put("k", checklist.getWeekId() + "-" + day.getDate() + "-" + task.getId())
+                            .put("html", ChecklistRenderer.renderTask(checklist.getWeekId(), day.getDate(), task));
+                }
+            }
+        }
+        try {
+            return new ChecklistEvents.Event(id, "rows", objectMapper.writeValueAsString(data));
+        } catch (IOException e) {
+            return new ChecklistEvents.Event(id, "reload", "{}");
+        }
+    }
+
+    private static boolean sameLayout(WeeklyChecklist a, WeeklyChecklist b) {
+        if (!a.getDays().keySet().equals(b.getDays().keySet())) return false;
+        for (Map.Entry<String, DayChecklist> entry : a.getDays().entrySet()) {
+            DayChecklist x = entry.getValue();
+            DayChecklist y = b.getDays().get(entry.getKey());
+            if (!Objects.equals(x.getDate(), y.getDate()) || !Objects.equals(x.getPlannedTime(), y.getPlannedTime())
+                    || x.getTasks().size() != y.getTasks().size()) return false;
+            for (int i = 0; i < x.getTasks().size(); i++) {
+                if (!Objects.equals(x.getTasks().get(i).getId(), y.getTasks().get(i).getId())) return false;
+            }
+        }
+        if (a.getResources().size() != b.getResources().size()) return false;
+        for (int i = 0; i < a.getResources().size(); i++) {
+            ResourceLink x = a.getResources().get(i);
+            ResourceLink y = b.getResources().get(i);
+            if (!Objects.equals(x.getTitle(), y.getTitle()) || !Objects.equals(x.getUrl(), y.getUrl())
+                    || !Objects.equals(x.getCategory(), y.getCategory())) return false;
+        }
+        return true;
+    }
+
+    // every runtime change of a task's completion goes through here: last writer wins on updatedAt,
+    // the change is stamped for sync clients, counted in the stats and queued for the disk.
+    // Returns the version the change was stamped with, or 0 if the task already holds a newer change.
+    private static long applyCompletion(WeeklyChecklist checklist, String date, TaskItem task, boolean completed, long updatedAt) {
+        long version;
+        synchronized (checklist) {
+            if (!ChecklistSync.wins(task, completed, updatedAt)) return 0;
+            if (task.changeCompleted(completed)) {
+                stats.completionChanged(checklist, date, task, completed);
+            }
+            version = WeeklyChecklist.nextVersion();
+            task.stamp(updatedAt, version);
+        }
+        writeBehind.markTaskChanged(checklist, date, task.getId(), completed, updatedAt);
+        if (events.hasListeners(checklist.getWeekId())) {
+            ObjectNode data = objectMapper.createObjectNode()
+                    .put("k", checklist.getWeekId() + "-" + date + "-" + task.getId())
+                    .put("c", completed ? 1 : 0)
+                    .put("t", updatedAt);
+            events.publish(checklist.getWeekId(), new ChecklistEvents.Event(version, "task", data.toString()));
+        }
+        return version;
+    }
+
+    private static TaskItem findTask(WeeklyChecklist checklist, String date, String taskId) {
+        for (DayChecklist day : checklist.getDays().values()) {
+            if (!date.equals(day.getDate())) continue;
+            TaskItem task = day.getTask(taskId);
+            if (task != null) return task;
+        }
+        return null;
+    }
+
+    // the same week under its normalised id, for bodies and files that spell it differently
+    private static WeeklyChecklist withWeekId(String weekId, WeeklyChecklist checklist) {
+        if (checklist == null || weekId.equals(checklist.getWeekId())) return checklist;
+        return new WeeklyChecklist(weekId, checklist.getDays(), checklist.getResources());
+    }
+
+    private static WeeklyChecklist getChecklist(String weekId) {
+        return checklists.get(weekId);
+    }
+
+    // cache miss: edits still waiting for the disk first (an evicted week may have some), then the disk itself
+    private static WeeklyChecklist loadChecklist(String weekId) {
+        WeeklyChecklist checklist = writeBehind.getPending(weekId);
+        if (checklist == null) {
+            checklist = loadFromDisk(weekId);
+        }
+        if (checklist != null) {
+            // this instance is the one toggles will now reach, so the stats are rebuilt from it
+            stats.index(weekId, checklist);
+            if (!searchIndex.contains(weekId)) {
+                searchIndex.indexIfAbsent(weekId, checklist);
+            }
+        }
+        return checklist;
+    }
+
+    private static WeeklyChecklist loadFromDisk(String weekId) {
+        java.nio.file.Path indexed = lazyIndex.remove(weekId);
+        if (indexed != null) {
+            try {
+                return withWeekId(weekId, ChecklistStorage.loadChecklistFile(indexed));
+            } catch (IOException e) {
+                Log.error("Error loading " + indexed + ": " + e.getMessage());
+                return null;
+            }
+        }
+        return ChecklistStorage.loadChecklist(weekId);
+    }
+
+    private static void createContext(HttpServer server, String path, HttpHandler handler) {
+        HttpContext context = server.createContext(path, handler);
+        context.getFilters().add(new MetricsFilter(path)); // first, so shed requests are counted too
+        if (accessLog != null) {
+            context.getFilters().add(accessLog);
+        }
+        context.getFilters().add(new LoadSheddingFilter());
+    }
+
+    private static AsyncLog openAccessLog() {
+        String path = config.getAccessLog();
+        if (path.isEmpty() || "off".equalsIgnoreCase(path)) return null;
+        try {
+            AsyncLog writer = new AsyncLog("access-log-writer", config.getLogQueueCapacity(),
+                    new RotatingFileSink(java.nio.file.Paths.get(path), config.getAccessLogBytes(), config.getAccessLogFiles()));
+            accessLog = new AccessLogFilter(writer);
+            Metrics.gauge("access_log_dropped_total", writer::getDroppedCount);
+            return writer;
+        } catch (IOException e) {
+            Log.warn("Could not open access log " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // everything /metrics reads from other components at scrape time
+    private static void registerGauges(RequestExecutor executor) {
+        Metrics.gauge("log_dropped_total", Log::getDroppedCount);
+        Metrics.gauge("checklist_cache_entries", checklists::size);
+        Metrics.gauge("checklist_cache_bytes", checklists::getEstimatedBytes);
+        Metrics.gauge("checklist_cache_hits_total", checklists::getHitCount);
+        Metrics.gauge("checklist_cache_misses_total", checklists::getMissCount);
+        Metrics.gauge("checklist_cache_hit_ratio", () -> ratio(checklists.getHitCount(), checklists.getMissCount()));
+        Metrics.gauge("checklist_cache_loads_total", checklists::getLoadCount);
+        Metrics.gauge("checklist_cache_coalesced_loads_total", checklists::getCoalescedLoadCount);
+        Metrics.gauge("checklist_cache_evictions_total", checklists::getEvictionCount);
+        Metrics.gauge("checklist_cache_rejections_total", checklists::getRejectionCount);
+        Metrics.gauge("search_index_weeks", searchIndex::getWeekCount);
+        Metrics.gauge("search_index_documents", searchIndex::getDocumentCount);
+        Metrics.gauge("search_index_terms", searchIndex::getTermCount);
+        Metrics.gauge("stats_weeks", stats::getWeekCount);
+        Metrics.gauge("event_connections", events::getConnectionCount);
+        Metrics.gauge("page_cache_entries", pageCache::size);
+        Metrics.gauge("page_cache_bytes", pageCache::getTotalBytes);
+        Metrics.gauge("page_cache_hits_total", pageCache::getHitCount);
+        Metrics.gauge("page_cache_misses_total", pageCache::getMissCount);
+        Metrics.gauge("page_cache_hit_ratio", () -> ratio(pageCache.getHitCount(), pageCache.getMissCount()));
+        Metrics.gauge("page_cache_evictions_total", pageCache::getEvictionCount);
+        Metrics.gauge("writebehind_pending", writeBehind::getPendingCount);
+        Metrics.gauge("writebehind_marked_total", writeBehind::getMarkedCount);
+        Metrics.gauge("writebehind_writes_total", writeBehind::getWriteCount);
+        Metrics.gauge("writebehind_failures_total", writeBehind::getFailureCount);
+        if (ChecklistStorage.getEngine() instanceof JournalStorageEngine journal) {
+            Metrics.gauge("journal_records_total", journal::getRecordCount);
+            Metrics.gauge("journal_commits_total", journal::getCommitCount);
+            Metrics.gauge("journal_bytes_total", journal::getBytesAppended);
+            Metrics.gauge("journal_compactions_total", journal::getCompactionCount);
+        }
+        if (executor != null) {
+            Metrics.gauge("executor_in_flight", executor::getInFlight);
+            Metrics.gauge("executor_queue_depth", executor::getQueueDepth);
+            Metrics.gauge("executor_completed_total", executor::getCompletedCount);
+            Metrics.gauge("executor_rejected_total", executor::getRejectedCount);
+        }
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
     private static void loadAllChecklists() {
+        long started = System.nanoTime();
         try {
-            java.nio.file.Path dataDir = java.nio.file.Paths.get("data/checklists");
-            if (java.nio.file.Files.exists(dataDir)) {
-                java.nio.file.Files.list(dataDir)
-                    .filter(p -> p.toString().endsWith(".json"))
-                    .forEach(p -> {
-                        try {
-                            String filename = p.getFileName().toString();
-                            String weekId = filename.substring(0, filename.length() - 5);
-                            WeeklyChecklist checklist = ChecklistStorage.loadChecklist(weekId);
-                            if (checklist != null) {
-                                checklists.put(weekId, checklist);
-                            }
-                        } catch (Exception e) {
-                            System.err.println("Error loading " + p + ": " + e.getMessage());
-                        }
-                    });
-                System.out.println("Loaded " + checklists.size() + " checklist(s) from disk");
+            Map<String, java.nio.file.Path> index = ChecklistLoader.index(ChecklistStorage.getDataDir(), config.getCodec());
+            String mode;
+            if (config.isLazyLoading()) {
+                lazyIndex.putAll(index);
+                mode = "lazy, indexed " + index.size() + " file(s)";
+            } else {
+                Map<String, java.nio.file.Path> eager = index;
+                if (index.size() > config.getChecklistCacheEntries()) {
+                    // only warm what the cache can hold; the rest is parsed on first access
+                    eager = ChecklistLoader.newest(index, config.getChecklistCacheEntries());
+                    lazyIndex.putAll(index);
+                    lazyIndex.keySet().removeAll(eager.keySet());
+                }
+                ChecklistLoader.loadAll(eager).forEach((weekId, loaded) -> {
+                    WeeklyChecklist checklist = withWeekId(weekId, loaded);
+                    stats.index(weekId, checklist);
+                    checklists.put(weekId, checklist);
+                    searchIndex.index(weekId, checklist);
+                });
+                mode = lazyIndex.isEmpty() ? "parallel" : "parallel, " + lazyIndex.size() + " more indexed";
             }
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            Log.info("Loaded " + checklists.size() + " checklist(s) from disk in " + millis + " ms (" + mode + ")");
         } catch (Exception e) {
-            System.err.println("Error loading checklists: " + e.getMessage());
+            Log.error("Error loading checklists: " + e.getMessage());
         }
     }
 
-    static class HomeHandler implements HttpHandler {
-        @Override
-        public void handle(HttpExchange exchange) throws IOException {
-            if (!"GET".equals(exchange.getRequestMethod())) {
-                sendError(exchange, 405, "Method not allowed");
-                return;
-            }
+    // weeks that were only indexed by file name still have to be searchable and counted in the
+    // stats; parse them once in the background without putting them in the cache
+    private static void indexLazyWeeks() {
+        Map<String, java.nio.file.Path> pending = new HashMap<>(lazyIndex);
+        if (pending.isEmpty()) return;
+        Thread indexer = new Thread(() -> {
+            long started = System.nanoTime();
+            pending.forEach((weekId, file) -> {
+                if (searchIndex.contains(weekId) && stats.contains(weekId)) return;
+                try {
+                    WeeklyChecklist checklist = withWeekId(weekId, ChecklistStorage.loadChecklistFile(file));
+                    searchIndex.indexIfAbsent(weekId, checklist);
+                    stats.indexIfAbsent(weekId, checklist);
+                } catch (Exception e) {
+                    Log.warn("Could not index " + file + ": " + e.getMessage());
+                }
+            });
+            Log.info("Indexed " + searchIndex.getWeekCount() + " week(s) for search and stats in "
+                    + (System.nanoTime() - started) / 1_000_000 + " ms");
+        }, "week-indexer");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
 
+    private static ChecklistWatcher startWatcher() {
+        if (!config.isWatching()) return null;
+        try {
+            ChecklistWatcher watcher = new ChecklistWatcher(ChecklistStorage.getDataDir(),
+                    config.getWatchDebounceMillis(), ServerMain::reloadChecklistFile);
+            watcher.start();
+            Metrics.gauge("watch_reloads_total", watcher::getChangeCount);
+            Log.info("Watching " + ChecklistStorage.getDataDir() + " for changed week files");
+            return watcher;
+        } catch (IOException e) {
+            Log.warn("Could not watch the data directory, changed files need a restart: " + e.getMessage());
+            return null;
+        }
+    }
 
-            String response = """
-                    <!DOCTYPE html>
-                    <html lang="en">
-                    <head>
-                        <meta charset="UTF-8">
-                        <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                        <title>Project BlackBerry - Home</title>
-                        <style>
-                            body { font-family: Arial, sans-serif; margin: 20px; background: #f5f5f5; }
-                            .container { max-width: 800px; margin: 0 auto; background: white; padding: 20px; border-radius: 5px; }
-                            h1 { color: #333; border-bottom: 2px solid #0066cc; padding-bottom: 10px; }
-                            .status { padding: 15px; margin: 20px 0; border-radius: 5px; background: #e8f4f8; border-left: 4px solid #0066cc; }
-                            .status.success { background: #e8f5e9; border-color: #4caf50; }
-                            .nav { margin: 20px 0; }
-                            .nav a { display: inline-block; margin: 5px 10px 5px 0; padding: 10px 15px; background: #0066cc; color: white; text-decoration: none; border-radius: 3px; }
-                            .nav a:hover { background: #0052a3; }
-                            .info { background: #fff3cd; padding: 10px; border-radius: 3px; margin: 10px 0; }
-                        </style>
-                    </head>
-                    <body>
+    // a week file was edited or dropped in from outside: it replaces the week, whatever the cache
+    // held, and pending task edits of the replaced instance are dropped rather than written over it
+    private static void reloadChecklistFile(java.nio.file.Path file) {
+        String filename = file.getFileName().toString();
+        String weekId = WeekUtils.normalize(filename.substring(0, filename.length() - ChecklistCodec.forFileName(filename).getExtension().length()));
+        if (weekId == null) return; // not a week file
+        WeeklyChecklist checklist;
+        try {
+            checklist = ChecklistStorage.loadChecklistFile(file);
+        } catch (IOException e) {
+            // most likely caught halfway through a save; the rest of it brings another event
+            Log.warn("Could not reload " + file + ": " + e.getMessage());
+            return;
+        }
+        if (!weekId.equals(WeekUtils.normalize(checklist.getWeekId()))) {
+            Log.warn("Ignoring " + file + ": it holds week " + checklist.getWeekId());
+            return;
+        }
+        checklist = withWeekId(weekId, checklist);
+        try {
+            if (ChecklistStorage.isWeekOfRecord(file)) {
+                writeBehind.discard(weekId);
+            } else {
+                writeBehind.saveNow(checklist); // into the journal or the configured codec
+            }
+        } catch (IOException e) {
+            Log.error("Error saving reloaded checklist " + weekId + ": " + e.getMessage());
+        }
+        lazyIndex.remove(weekId);
+        putChecklist(weekId, checklist);
+        Log.info("Reloaded " + weekId + " from " + file);
+    }
+
+    static class HomeHandler implements HttpHandler {
+        private static final CachedPage PAGE = CachedPage.html(PageStyle.head("Project BlackBerry - Home", "home.css") + """
                         <div class="container">
                             <h1>Project BlackBerry</h1>
                             <div class="status success">
@@ -109,6 +439,8 @@ public class ServerMain {
                             <div class="nav">
                                 <a href="/checklist">📋 Weekly Checklist</a>
                                 <a href="/navigator">🔗 Resource Navigator</a>
+                                <a href="/search">🔍 Search Tasks</a>
+                                <a href="/stats">📊 Statistics</a>
                                 <a href="/setup">⚙️ Setup Guide</a>
                             </div>
                             <div class="info">
@@ -118,13 +450,8 @@ public class ServerMain {
                         </div>
                     </body>
                     </html>
-                    """;
+                    """);
 
-            sendResponse(exchange, 200, response, "text/html; charset=utf-8");
-        }
-    }
-
-    static class SetupHandler implements HttpHandler {
         @Override
         public void handle(HttpExchange exchange) throws IOException {
             if (!"GET".equals(exchange.getRequestMethod())) {
@@ -132,37 +459,12 @@ public class ServerMain {
                 return;
             }
 
-            String serverIP = exchange.getLocalAddress().getAddress().getHostAddress();
-            if (serverIP.equals("0.0.0.0") || serverIP.equals("::")) {
-                try {
-                    serverIP = java.net.InetAddress.getLocalHost().getHostAddress();
-                } catch (Exception e) {
-                    serverIP = "YOUR_LAPTOP_IP";
-                }
-            }
+            sendPage(exchange, PAGE);
+        }
+    }
 
-            String response = """
-                    <!DOCTYPE html>
-                    <html lang="en">
-                    <head>
-                        <meta charset="UTF-8">
-                        <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                        <title>Setup Guide - Project BlackBerry</title>
-                        <style>
-                            body { font-family: Arial, sans-serif; margin: 20px; background: #f5f5f5; }
-                            .container { max-width: 800px; margin: 0 auto; background: white; padding: 20px; border-radius: 5px; }
-                            h1 { color: #333; border-bottom: 2px solid #0066cc; padding-bottom: 10px; }
-                            h2 { color: #666; margin-top: 30px; }
-                            .step { margin: 20px 0; padding: 15px; background: #fafafa; border-left: 4px solid #0066cc; }
-                            .step-number { display: inline-block; width: 30px; height: 30px; background: #0066cc; color: white; text-align: center; line-height: 30px; border-radius: 50%; margin-right: 10px; font-weight: bold; }
-                            .code { background: #f4f4f4; padding: 10px; border-radius: 3px; font-family: monospace; margin: 10px 0; overflow-x: auto; }
-                            .warning { background: #fff3cd; padding: 15px; border-left: 4px solid #ffc107; margin: 20px 0; }
-                            .success { background: #e8f5e9; padding: 15px; border-left: 4px solid #4caf50; margin: 20px 0; }
-                            .nav { margin: 20px 0; }
-                            .nav a { display: inline-block; margin: 5px 10px 5px 0; padding: 10px 15px; background: #0066cc; color: white; text-decoration: none; border-radius: 3px; }
-                        </style>
-                    </head>
-                    <body>
+    static class SetupHandler implements HttpHandler {
+        private static final CachedPage PAGE = CachedPage.html(PageStyle.head("Setup Guide - Project BlackBerry", "setup.css") + """
                         <div class="container">
                             <h1>Setup Guide</h1>
                             <div class="nav">
@@ -272,13 +574,8 @@ public class ServerMain {
                         </div>
                     </body>
                     </html>
-                    """;
+                    """);
 
-            sendResponse(exchange, 200, response, "text/html; charset=utf-8");
-        }
-    }
-
-    static class TodayHandler implements HttpHandler {
         @Override
         public void handle(HttpExchange exchange) throws IOException {
             if (!"GET".equals(exchange.getRequestMethod())) {
@@ -286,7 +583,12 @@ public class ServerMain {
                 return;
             }
 
-            String response = """
+            sendPage(exchange, PAGE);
+        }
+    }
+
+    static class TodayHandler implements HttpHandler {
+        private static final CachedPage PAGE = CachedPage.html("""
                     <!DOCTYPE html>
                     <html lang="en">
                     <head>
@@ -306,13 +608,25 @@ public class ServerMain {
                         </nav>
                     </body>
                     </html>
-                    """;
+                    """);
 
-            sendResponse(exchange, 200, response, "text/html; charset=utf-8");
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+
+            sendPage(exchange, PAGE);
         }
     }
 
+    // POST /import?week=... takes one week. Without ?week= the body is a stream of weeks, either a
+    // JSON array or NDJSON (any whitespace-separated sequence of objects), each carrying its weekId.
     static class ImportHandler implements HttpHandler {
+        private static final java.util.regex.Pattern WEEK_ID = java.util.regex.Pattern.compile("^\\d{4}-W\\d{1,2}$");
+        private static final int BATCH_SIZE = 64;
+
         @Override
         public void handle(HttpExchange exchange) throws IOException {
             if (!"POST".equals(exchange.getRequestMethod())) {
@@ -320,27 +634,144 @@ public class ServerMain {
                 return;
             }
 
+            long maxBytes = config.getImportMaxBytes();
+            if (declaresTooLarge(exchange, maxBytes)) {
+                sendTooLarge(exchange, maxBytes);
+                return;
+            }
+            LimitedInputStream body = new LimitedInputStream(exchange.getRequestBody(), maxBytes);
+
             String week = getQueryParam(exchange, "week");
             if (week == null || week.isEmpty()) {
-                sendError(exchange, 400, "Missing 'week' parameter");
+                importBulk(exchange, body);
                 return;
             }
 
+            String weekId = WeekUtils.normalize(week);
+            if (!WEEK_ID.matcher(week).matches() || weekId == null) {
+                sendError(exchange, 400, "Malformed week: " + week);
+                return;
+            }
+            week = weekId;
             try {
-                String jsonBody = readRequestBody(exchange);
-                WeeklyChecklist checklist = objectMapper.readValue(jsonBody, WeeklyChecklist.class);
-                checklists.put(week, checklist);
-                
-                ChecklistStorage.saveChecklist(checklist); // persist to disk
-                
+                WeeklyChecklist checklist = objectMapper.readValue(body, WeeklyChecklist.class);
+                // the body's weekId names the file it is saved to, so it has to be the week being imported
+                if (!week.equals(WeekUtils.normalize(checklist.getWeekId()))) {
+                    sendError(exchange, 400, "weekId in the body (" + checklist.getWeekId() + ") does not match week " + week);
+                    return;
+                }
+                WeeklyChecklist imported = withWeekId(week, checklist);
+                try {
+                    // on disk first; pages, caches and indexes only see the week once it is saved
+                    writeBehind.saveNow(imported, () -> putChecklist(weekId, imported));
+                } catch (IOException e) {
+                    Log.error("Error saving imported week " + week + ": " + e.getMessage());
+                    sendError(exchange, 500, "Could not save week " + week);
+                    return;
+                }
+
                 String response = "Imported and saved checklist for week: " + week;
                 sendResponse(exchange, 200, response, "text/plain");
-                System.out.println("Imported and saved checklist: " + week);
+                Log.info("Imported and saved checklist: " + week);
             } catch (Exception e) {
+                if (body.isExceeded()) {
+                    sendTooLarge(exchange, maxBytes);
+                    return;
+                }
                 sendError(exchange, 400, "Invalid JSON: " + e.getMessage());
-                e.printStackTrace();
+                Log.warn("Rejected import for week " + week + ": " + e.getMessage());
+            }
+        }
+
+        // parses one week at a time off the stream and saves every BATCH_SIZE weeks, so memory stays
+        // bounded however long the body is. Weeks before a syntax error are still imported.
+        private void importBulk(HttpExchange exchange, LimitedInputStream body) throws IOException {
+            ArrayNode results = objectMapper.createArrayNode();
+            List<WeeklyChecklist> batch = new ArrayList<>(BATCH_SIZE);
+            List<ObjectNode> batchResults = new ArrayList<>(BATCH_SIZE);
+            int status = 200;
+            String error = null;
+
+            try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.START_ARRAY) {
+                    token = parser.nextToken();
+                }
+                while (token != null && token != JsonToken.END_ARRAY) {
+                    JsonNode node = parser.readValueAsTree();
+                    ObjectNode result = results.addObject();
+                    WeeklyChecklist checklist = toChecklist(node, result);
+                    if (checklist != null) {
+                        batch.add(checklist);
+                        batchResults.add(result);
+                        if (batch.size() >= BATCH_SIZE) {
+                            persist(batch, batchResults);
+                        }
+                    }
+                    token = parser.nextToken();
+                }
+            } catch (Exception e) {
+                status = body.isExceeded() ? 413 : 400;
+                error = e.getMessage();
+            }
+            persist(batch, batchResults);
+
+            int imported = 0;
+            for (JsonNode result : results) {
+                if ("imported".equals(result.get("status").asText())) imported++;
+            }
+            ObjectNode response = objectMapper.createObjectNode();
+            response.put("imported", imported);
+            response.put("failed", results.size() - imported);
+            if (error != null) {
+                response.put("error", error);
+                exchange.getResponseHeaders().set("Connection", "close"); // the rest of the body is not read
+            }
+            response.set("results", results);
+            sendResponse(exchange, status, objectMapper.writeValueAsString(response), "application/json");
+            Log.info("Bulk import: " + imported + " week(s) saved, " + (results.size() - imported) + " rejected");
+        }
+
+        private WeeklyChecklist toChecklist(JsonNode node, ObjectNode result) {
+            String weekId = node.path("weekId").asText("");
+            result.put("week", weekId);
+            if (!WEEK_ID.matcher(weekId).matches() || WeekUtils.normalize(weekId) == null) {
+                result.put("status", "invalid").put("error", "missing or malformed weekId");
+                return null;
+            }
+            try {
+                WeeklyChecklist checklist = objectMapper.treeToValue(node, WeeklyChecklist.class);
+                result.put("status", "pending");
+                return withWeekId(WeekUtils.normalize(weekId), checklist);
+            } catch (Exception e) {
+                result.put("status", "invalid").put("error", e.getMessage());
+                return null;
+            }
+        }
+
+        // one storage call per batch (with the journal engine: one group commit)
+        private void persist(List<WeeklyChecklist> batch, List<ObjectNode> batchResults) {
+            if (batch.isEmpty()) return;
+            try {
+                // on disk first: a batch that fails to save is not served either
+                writeBehind.saveAllNow(batch, () -> {
+                    for (WeeklyChecklist checklist : batch) {
+                        putChecklist(checklist.getWeekId(), checklist);
+                    }
+                });
+                for (ObjectNode result : batchResults) {
+                    result.put("status", "imported");
+                }
+            } catch (Exception e) {
+                Log.error("Error saving imported weeks: " + e.getMessage());
+                for (ObjectNode result : batchResults) {
+                    result.put("status", "failed").put("error", e.getMessage());
+                }
             }
+            batch.clear();
+            batchResults.clear();
         }
+
     }
 
     static class ChecklistHandler implements HttpHandler {
@@ -351,281 +782,757 @@ public class ServerMain {
                 return;
             }
 
+            String from = getQueryParam(exchange, "from");
+            if (from != null && !from.isEmpty()) {
+                sendRange(exchange, from, getQueryParam(exchange, "to"), getQueryParam(exchange, "page"));
+                return;
+            }
+
             String week = getQueryParam(exchange, "week");
             if (week == null || week.isEmpty()) {
                 week = WeekUtils.getCurrentWeekId(); // auto detect if not specified
+            } else if (WeekUtils.normalize(week) == null) {
+                sendError(exchange, 400, "Malformed week: " + week);
+                return;
+            } else {
+                week = WeekUtils.normalize(week);
             }
 
             // try memory first, then disk, then default
-            WeeklyChecklist checklist = checklists.get(week);
+            WeeklyChecklist checklist = getChecklist(week);
             if (checklist == null) {
-                checklist = ChecklistStorage.loadChecklist(week);
-                if (checklist != null) {
-                    checklists.put(week, checklist);
-                } else {
-                    checklist = createDefaultChecklist(week);
-                }
+                // empty placeholder weeks are cheap to render and not worth a cache slot
+                byte[] body = ChecklistRenderer.renderToBytes(createDefaultChecklist(week));
+                sendResponse(exchange, 200, body, "text/html; charset=utf-8");
+                return;
             }
-            
-            String html = renderChecklistHtml(checklist, week);
-            sendResponse(exchange, 200, html, "text/html; charset=utf-8");
-        }
-
-        private String renderChecklistHtml(WeeklyChecklist checklist, String weekId) {
-            StringBuilder html = new StringBuilder();
-            html.append("<!DOCTYPE html>\n");
-            html.append("<html lang=\"en\">\n");
-            html.append("<head>\n");
-            html.append("    <meta charset=\"UTF-8\">\n");
-            html.append("    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n");
-            html.append("    <title>Weekly Checklist - ").append(checklist.getWeekId()).append("</title>\n");
-            html.append("    <style>\n");
-            html.append("        body { font-family: Arial, sans-serif; margin: 20px; background: #f5f5f5; }\n");
-            html.append("        .container { max-width: 800px; margin: 0 auto; background: white; padding: 20px; border-radius: 5px; }\n");
-            html.append("        h1 { color: #333; border-bottom: 2px solid #0066cc; padding-bottom: 10px; }\n");
-            html.append("        h2 { color: #666; margin-top: 30px; }\n");
-            html.append("        .day { margin: 20px 0; padding: 15px; background: #fafafa; border-left: 4px solid #0066cc; }\n");
-            html.append("        .task { margin: 10px 0; padding: 10px; background: white; border: 1px solid #ddd; }\n");
-            html.append("        .task label { display: block; margin: 5px 0; cursor: pointer; }\n");
-            html.append("        .task input[type=\"checkbox\"] { margin-right: 10px; }\n");
-            html.append("        .task.completed { opacity: 0.6; text-decoration: line-through; }\n");
-            html.append("        .priority { display: inline-block; padding: 2px 8px; border-radius: 3px; font-size: 0.85em; margin-left: 10px; }\n");
-            html.append("        .priority.HIGH { background: #ffcccc; color: #cc0000; }\n");
-            html.append("        .priority.CRITICAL { background: #ff9999; color: #990000; font-weight: bold; }\n");
-            html.append("        .priority.MEDIUM { background: #ffffcc; color: #666600; }\n");
-            html.append("        .priority.LOW { background: #ccffcc; color: #006600; }\n");
-            html.append("        .time { color: #666; font-size: 0.9em; margin-left: 10px; }\n");
-            html.append("        nav { margin: 20px 0; }\n");
-            html.append("        nav a { color: #0066cc; text-decoration: none; margin-right: 15px; }\n");
-            html.append("        nav a:hover { text-decoration: underline; }\n");
-            html.append("    </style>\n");
-            html.append("</head>\n");
-            html.append("<body>\n");
-            html.append("    <div class=\"container\">\n");
-            html.append("        <h1>Weekly Checklist: ").append(checklist.getWeekId()).append("</h1>\n");
-            html.append("        <nav>\n");
-            html.append("            <a href=\"/\">Home</a>\n");
-            html.append("            <a href=\"/navigator\">Resource Navigator</a>\n");
-            html.append("            <a href=\"/checklist\">Current Week</a>\n");
-            html.append("        </nav>\n");
 
-            // Sort days by date
-            List<Map.Entry<String, DayChecklist>> sortedDays = new ArrayList<>(checklist.getDays().entrySet());
-            sortedDays.sort(Map.Entry.comparingByKey());
+            long version = checklist.getVersion();
+            // the version is enough to answer a revalidation, no need to look at the cache
+            if (CachedPage.isNotModified(exchange, CachedPage.versionEtag(version), checklist.getLastModified())) {
+                sendNotModified(exchange, CachedPage.versionEtag(version), checklist.getLastModified());
+                return;
+            }
+            CachedPage page = pageCache.get(week, version);
+            if (page == null && ChecklistRenderer.countTasks(checklist) >= config.getStreamThresholdTasks()) {
+                streamChecklist(exchange, checklist, week, version);
+                return;
+            }
+            if (page == null) {
+                byte[] body = ChecklistRenderer.renderToBytes(checklist);
+                page = CachedPage.versioned(body, "text/html; charset=utf-8", version, checklist.getLastModified());
+                pageCache.put(week, version, page);
+            }
+            sendPage(exchange, page);
+        }
 
-            for (Map.Entry<String, DayChecklist> entry : sortedDays) {
-                DayChecklist day = entry.getValue();
-                html.append("        <div class=\"day\">\n");
-                html.append("            <h2>").append(formatDate(day.getDate())).append("</h2>\n");
-                if (day.getPlannedTime() != null && !day.getPlannedTime().isEmpty()) {
-                    html.append("            <p><strong>Planned Time:</strong> ").append(day.getPlannedTime()).append("</p>\n");
-                }
+        // big weeks go out chunked while they render; a copy is kept so the next hit comes from the page cache
+        private void streamChecklist(HttpExchange exchange, WeeklyChecklist checklist, String week, long version) throws IOException {
+            String contentType = "text/html; charset=utf-8";
+            int level = config.getCompressionLevel(contentType);
+            Compression.Encoding encoding = level > 0
+                    ? Compression.negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding")) : null;
+            String etag = CachedPage.versionEtag(version);
+            addValidators(exchange, encoding != null ? encoding.etag(etag) : etag, CachedPage.httpDate(checklist.getLastModified()));
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+            if (encoding != null) {
+                exchange.getResponseHeaders().set("Content-Encoding", encoding.getToken());
+            }
+            exchange.sendResponseHeaders(200, 0); // 0 = chunked
 
-                for (TaskItem task : day.getTasks()) {
-                    String taskId = checklist.getWeekId() + "-" + day.getDate() + "-" + task.getId();
-                    String completedClass = task.isCompleted() ? " completed" : "";
-                    html.append("            <div class=\"task").append(completedClass).append("\">\n");
-                    html.append("                <label>\n");
-                    html.append("                    <input type=\"checkbox\" id=\"").append(taskId).append("\"");
-                    if (task.isCompleted()) {
-                        html.append(" checked");
-                    }
-                    html.append(" onchange=\"saveTaskState('").append(taskId).append("', this.checked)\">\n");
-                    html.append("                    ").append(escapeHtml(task.getDescription())).append("\n");
-                    if (task.getPriority() != null && !task.getPriority().isEmpty()) {
-                        html.append("                    <span class=\"priority ").append(task.getPriority()).append("\">").append(task.getPriority()).append("</span>\n");
-                    }
-                    if (task.getEstimatedTime() != null && !task.getEstimatedTime().isEmpty()) {
-                        html.append("                    <span class=\"time\">(").append(task.getEstimatedTime()).append(")</span>\n");
+            ByteArrayOutputStream copy = config.getPageCacheEntries() > 0 ? new ByteArrayOutputStream(64 * 1024) : null;
+            OutputStream out = exchange.getResponseBody();
+            if (encoding != null) {
+                out = Compression.wrap(out, encoding, level);
+            }
+            if (copy != null) {
+                out = new TeeOutputStream(out, copy);
+            }
+            ChecklistRenderer.stream(checklist, out);
+            if (copy != null) {
+                pageCache.put(week, version, CachedPage.versioned(copy.toByteArray(), contentType, version, checklist.getLastModified()));
+            }
+        }
+
+        // /checklist?from=2025-W1&to=2025-W12&page=2, range.weeks weeks per page. All weeks of the page
+        // are loaded and rendered on the range workers at once; the sections go out in order, each
+        // as soon as it and the ones before it are done, so a page takes about as long as its
+        // slowest week rather than the sum of them.
+        private void sendRange(HttpExchange exchange, String from, String to, String pageParam) throws IOException {
+            LocalDate first = WeekUtils.weekStart(from);
+            LocalDate last = to == null || to.isEmpty() ? first : WeekUtils.weekStart(to);
+            if (first == null || last == null || last.isBefore(first)) {
+                sendError(exchange, 400, "Invalid week range");
+                return;
+            }
+            int perPage = Math.max(1, config.getRangePageWeeks());
+            long pages = (ChronoUnit.WEEKS.between(first, last) + perPage) / perPage;
+            int page;
+            try {
+                page = pageParam == null ? 1 : Integer.parseInt(pageParam);
+            } catch (NumberFormatException e) {
+                page = 0;
+            }
+            if (page < 1 || page > pages) {
+                sendError(exchange, 400, "Invalid 'page' parameter");
+                return;
+            }
+
+            LocalDate start = first.plusWeeks((long) (page - 1) * perPage);
+            LocalDate end = start.plusWeeks(perPage - 1).isAfter(last) ? last : start.plusWeeks(perPage - 1);
+            // weeks already in memory are picked up in one pass; the workers only go to disk for the rest
+            WeekTable<WeeklyChecklist> cached = new WeekTable<>(perPage);
+            checklists.forEachInRange(WeekUtils.key(start), WeekUtils.key(end), cached::put);
+            List<String> weekIds = new ArrayList<>(perPage);
+            List<CompletableFuture<byte[]>> sections = new ArrayList<>(perPage);
+            for (LocalDate day = start; !day.isAfter(end); day = day.plusWeeks(1)) {
+                String weekId = WeekUtils.weekId(day);
+                weekIds.add(weekId);
+                WeeklyChecklist checklist = cached.get(WeekUtils.key(day));
+                sections.add(CompletableFuture.supplyAsync(() -> ChecklistRenderer.renderWeekSection(weekId,
+                        checklist != null ? checklist : getChecklist(weekId)), rangeWorkers));
+            }
+
+            String contentType = "text/html; charset=utf-8";
+            int level = config.getCompressionLevel(contentType);
+            Compression.Encoding encoding = level > 0
+                    ? Compression.negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding")) : null;
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+            if (encoding != null) {
+                exchange.getResponseHeaders().set("Content-Encoding", encoding.getToken());
+            }
+            exchange.sendResponseHeaders(200, 0); // 0 = chunked
+
+            String fromId = WeekUtils.weekId(first);
+            String toId = WeekUtils.weekId(last);
+            String previous = page > 1 ? rangeLink(fromId, toId, page - 1, "&larr; Previous") : "";
+            String next = page < pages ? rangeLink(fromId, toId, page + 1, "Next &rarr;") : "";
+            String position = pages > 1 ? "Page " + page + " of " + pages : null;
+            OutputStream out = exchange.getResponseBody();
+            if (encoding != null) {
+                out = Compression.wrap(out, encoding, level);
+            }
+            try (TemplateOutput.Stream html = new TemplateOutput.Stream(out)) {
+                ChecklistRenderer.renderRangeStart(fromId + " to " + toId, previous, position, next, html);
+                html.flush();
+                for (int i = 0; i < sections.size(); i++) {
+                    try {
+                        html.write(sections.get(i).join());
+                    } catch (CompletionException e) {
+                        // the headers are out, so one bad week can't turn into an error page
+                        Log.error("Error rendering week " + weekIds.get(i) + " of a range: " + e.getCause());
+                        ChecklistRenderer.renderWeekError(weekIds.get(i), html);
                     }
-                    html.append("                </label>\n");
-                    html.append("            </div>\n");
+                    html.flush();
                 }
-                html.append("        </div>\n");
-            }
-
-            // display resources section if they exist
-            if (checklist.getResources() != null && !checklist.getResources().isEmpty()) {
-                html.append("        <div class=\"day\" style=\"margin-top: 40px;\">\n");
-                html.append("            <h2>Resources for This Week</h2>\n");
-                html.append("            <ul style=\"list-style-type: none; padding: 0;\">\n");
-                for (var resource : checklist.getResources()) {
-                    html.append("                <li style=\"margin: 10px 0; padding: 10px; background: white; border: 1px solid #ddd;\">\n");
-                    html.append("                    <a href=\"").append(escapeHtml(resource.getUrl())).append("\" style=\"color: #0066cc; text-decoration: none; font-weight: bold;\">");
-                    html.append(escapeHtml(resource.getTitle())).append("</a>\n");
-                    if (resource.getCategory() != null && !resource.getCategory().isEmpty()) {
-                        html.append("                    <span style=\"color: #666; font-size: 0.9em; margin-left: 10px;\">(");
-                        html.append(escapeHtml(resource.getCategory())).append(")</span>\n");
+                ChecklistRenderer.renderRangeEnd(html);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        private static String rangeLink(String from, String to, int page, String label) {
+            return "<a href=\"/checklist?from=" + from + "&amp;to=" + to + "&amp;page=" + page + "\">" + label + "</a>";
+        }
+
+        private WeeklyChecklist createDefaultChecklist(String weekId) {
+            Map<String, DayChecklist> days = new HashMap<>();
+            return new WeeklyChecklist(weekId, days, new ArrayList<>());
+        }
+    }
+
+    // Toggles task completion. Keys are the weekId-date-id checkbox ids the checklist page uses:
+    //   POST /tasks?key=2025-W1-2025-12-29-1&completed=true
+    //   POST|PATCH /tasks  [{"key": "...", "completed": true}, ...]
+    static class TaskHandler implements HttpHandler {
+        static final java.util.regex.Pattern TASK_KEY =
+                java.util.regex.Pattern.compile("^(\\d{4}-W\\d{1,2})-(\\d{4}-\\d{2}-\\d{2})-(.+)$");
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            String method = exchange.getRequestMethod();
+            if (!"POST".equals(method) && !"PATCH".equals(method)) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+
+            long maxBytes = config.getRequestMaxBytes();
+            if (declaresTooLarge(exchange, maxBytes)) {
+                sendTooLarge(exchange, maxBytes);
+                return;
+            }
+            List<Map.Entry<String, Boolean>> updates = new ArrayList<>();
+            LimitedInputStream in = new LimitedInputStream(exchange.getRequestBody(), maxBytes);
+            try {
+                String key = getQueryParam(exchange, "key");
+                if (key != null) {
+                    updates.add(Map.entry(key, Boolean.parseBoolean(getQueryParam(exchange, "completed"))));
+                } else {
+                    JsonNode body = objectMapper.readTree(in);
+                    for (JsonNode update : body.isArray() ? body : List.of(body)) {
+                        if (!update.hasNonNull("key")) {
+                            throw new IllegalArgumentException("every update needs a 'key'");
+                        }
+                        updates.add(Map.entry(update.get("key").asText(), update.path("completed").asBoolean()));
                     }
-                    html.append("                </li>\n");
                 }
-                html.append("            </ul>\n");
-                html.append("        </div>\n");
+            } catch (Exception e) {
+                if (in.isExceeded()) {
+                    sendTooLarge(exchange, maxBytes);
+                    return;
+                }
+                sendError(exchange, 400, "Invalid request: " + e.getMessage());
+                return;
             }
 
-            html.append("    </div>\n");
-            html.append("    <script>\n");
-            html.append("        // load saved checkbox states from localStorage\n");
-            html.append("        function loadTaskStates() {\n");
-            html.append("            var checkboxes = document.querySelectorAll('input[type=\"checkbox\"]');\n");
-            html.append("            checkboxes.forEach(function(cb) {\n");
-            html.append("                var saved = localStorage.getItem(cb.id);\n");
-            html.append("                if (saved === 'true') {\n");
-            html.append("                    cb.checked = true;\n");
-            html.append("                    cb.closest('.task').classList.add('completed');\n");
-            html.append("                }\n");
-            html.append("            });\n");
-            html.append("        }\n");
-            html.append("        \n");
-            html.append("        // save checkbox state to localStorage\n");
-            html.append("        function saveTaskState(taskId, completed) {\n");
-            html.append("            localStorage.setItem(taskId, completed ? 'true' : 'false');\n");
-            html.append("            var taskDiv = document.getElementById(taskId).closest('.task');\n");
-            html.append("            if (completed) {\n");
-            html.append("                taskDiv.classList.add('completed');\n");
-            html.append("            } else {\n");
-            html.append("                taskDiv.classList.remove('completed');\n");
-            html.append("            }\n");
-            html.append("        }\n");
-            html.append("        \n");
-            html.append("        // load states when page loads\n");
-            html.append("        window.onload = loadTaskStates;\n");
-            html.append("    </script>\n");
-            html.append("</body>\n");
-            html.append("</html>\n");
+            Set<WeeklyChecklist> touched = new HashSet<>();
+            ArrayNode results = objectMapper.createArrayNode();
+            for (Map.Entry<String, Boolean> update : updates) {
+                WeeklyChecklist checklist = applyUpdate(update.getKey(), update.getValue());
+                if (checklist != null) {
+                    touched.add(checklist);
+                }
+                results.addObject().put("key", update.getKey()).put("status", checklist != null ? "ok" : "not found");
+            }
+            for (WeeklyChecklist checklist : touched) {
+                checklist.markModified();
+                pageCache.invalidate(checklist.getWeekId());
+            }
 
-            return html.toString();
+            ObjectNode response = objectMapper.createObjectNode();
+            response.put("updated", results.size() - countNotFound(results));
+            response.set("results", results);
+            sendResponse(exchange, 200, objectMapper.writeValueAsString(response), "application/json");
+        }
+
+        // returns the checklist the task belongs to, or null if the key doesn't point at a task
+        private WeeklyChecklist applyUpdate(String key, boolean completed) {
+            java.util.regex.Matcher m = TASK_KEY.matcher(key);
+            if (!m.matches()) return null;
+            String weekId = WeekUtils.normalize(m.group(1));
+            if (weekId == null) return null;
+            WeeklyChecklist checklist = getChecklist(weekId);
+            if (checklist == null) return null;
+            TaskItem task = findTask(checklist, m.group(2), m.group(3));
+            if (task == null) return null;
+            // a change made on the server right now is the newest there is
+            applyCompletion(checklist, m.group(2), task, completed, System.currentTimeMillis());
+            return checklist;
+        }
+
+        private int countNotFound(ArrayNode results) {
+            int count = 0;
+            for (JsonNode result : results) {
+                if (!"ok".equals(result.get("status").asText())) count++;
+            }
+            return count;
         }
+    }
+
+    // POST /sync?week=2025-W1: merges the changes a page queued in localStorage and answers with
+    // only what changed on the server since the page's last token (protocol in ChecklistSync)
+    static class SyncHandler implements HttpHandler {
+        private static final int MAX_CHANGES = 1000;
 
-        private String formatDate(String dateStr) {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+            String weekId = getQueryParam(exchange, "week");
+            if (weekId == null) {
+                sendError(exchange, 400, "Missing 'week' parameter");
+                return;
+            }
+            if (WeekUtils.normalize(weekId) == null) {
+                sendError(exchange, 400, "Malformed week: " + weekId);
+                return;
+            }
+            weekId = WeekUtils.normalize(weekId);
+            long maxBytes = config.getRequestMaxBytes();
+            if (declaresTooLarge(exchange, maxBytes)) {
+                sendTooLarge(exchange, maxBytes);
+                return;
+            }
+            String since;
+            JsonNode changes;
+            LimitedInputStream in = new LimitedInputStream(exchange.getRequestBody(), maxBytes);
             try {
-                // Parse YYYY-MM-DD and format nicely
-                String[] parts = dateStr.split("-");
-                if (parts.length == 3) {
-                    int year = Integer.parseInt(parts[0]);
-                    int month = Integer.parseInt(parts[1]);
-                    int day = Integer.parseInt(parts[2]);
-                    String[] months = {"", "January", "February", "March", "April", "May", "June",
-                                      "July", "August", "September", "October", "November", "December"};
-                    String[] weekdays = {"Sunday", "Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday"};
-                    // get weekday from date
-                    java.time.LocalDate date = java.time.LocalDate.of(year, month, day);
-                    return weekdays[date.getDayOfWeek().getValue() % 7] + ", " + months[month] + " " + day + ", " + year;
+                JsonNode body = objectMapper.readTree(in);
+                since = body.path("since").asText(null);
+                changes = body.path("changes");
+                if (changes.size() > MAX_CHANGES) {
+                    throw new IllegalArgumentException("more than " + MAX_CHANGES + " changes");
                 }
             } catch (Exception e) {
-                // if parsing fails, just return original string
+                if (in.isExceeded()) {
+                    sendTooLarge(exchange, maxBytes);
+                    return;
+                }
+                sendError(exchange, 400, "Invalid request: " + e.getMessage());
+                return;
+            }
+            WeeklyChecklist checklist = getChecklist(weekId);
+            if (checklist == null) {
+                sendError(exchange, 404, "Checklist not found for week: " + weekId);
+                return;
+            }
+
+            // the client's own winning changes don't need to travel back to it, the losing ones do
+            Map<String, Long> accepted = new HashMap<>();
+            Set<String> rejected = new HashSet<>();
+            long now = System.currentTimeMillis();
+            for (JsonNode change : changes) {
+                String key = change.path("k").asText("");
+                java.util.regex.Matcher m = TaskHandler.TASK_KEY.matcher(key);
+                if (!m.matches() || !weekId.equals(WeekUtils.normalize(m.group(1)))) continue;
+                TaskItem task = findTask(checklist, m.group(2), m.group(3));
+                if (task == null) continue;
+                long version = applyCompletion(checklist, m.group(2), task, change.path("c").asInt() != 0,
+                        ChecklistSync.clampTime(change.path("t").asLong(), now));
+                if (version != 0) {
+                    accepted.put(key, version);
+                } else {
+                    rejected.add(key);
+                }
+            }
+            if (!accepted.isEmpty()) {
+                checklist.markModified();
+                pageCache.invalidate(weekId);
             }
-            return dateStr;
+
+            ObjectNode response = objectMapper.createObjectNode();
+            ArrayNode out = objectMapper.createArrayNode();
+            synchronized (checklist) {
+                // read under the lock every stamp is made under, so nothing at or below the token is missed
+                long from = ChecklistSync.sinceVersion(since, checklist);
+                response.put("token", ChecklistSync.token(WeeklyChecklist.currentVersion()));
+                response.put("reset", from < 0 ? 1 : 0);
+                for (DayChecklist day : checklist.getDays().values()) {
+                    for (TaskItem task : day.getTasks()) {
+                        String key = weekId + "-" + day.getDate() + "-" + task.getId();
+                        boolean changed = from < 0 || rejected.contains(key) || (task.getChangeVersion() > from
+                                && !Long.valueOf(task.getChangeVersion()).equals(accepted.get(key)));
+                        if (changed) {
+                            out.addObject().put("k", key).put("c", task.isCompleted() ? 1 : 0).put("t", task.getUpdatedAt());
+                        }
+                    }
+                }
+            }
+            response.set("changes", out);
+            sendResponse(exchange, 200, objectMapper.writeValueAsString(response), "application/json");
         }
+    }
 
-        private String escapeHtml(String text) {
-            if (text == null) return "";
-            return text.replace("&", "&amp;")
-                      .replace("<", "&lt;")
-                      .replace(">", "&gt;")
-                      .replace("\"", "&quot;")
-                      .replace("'", "&#39;");
+    // GET /events?week=2025-W1: a Server-Sent Events stream of changes to the week ("task",
+    // "rows", "reload"); &poll=1 long-polls instead, for browsers without EventSource.
+    // after (or Last-Event-ID on a reconnect) is the version the page last saw. The handler
+    // hands the exchange to the event hub and returns, so no thread waits on an idle page.
+    static class EventsHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+            String weekId = getQueryParam(exchange, "week");
+            if (weekId == null) {
+                sendError(exchange, 400, "Missing 'week' parameter");
+                return;
+            }
+            if (WeekUtils.normalize(weekId) == null) {
+                sendError(exchange, 400, "Malformed week: " + weekId);
+                return;
+            }
+            weekId = WeekUtils.normalize(weekId);
+            long after;
+            try {
+                String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+                String requested = lastEventId != null ? lastEventId : getQueryParam(exchange, "after");
+                after = requested != null ? Long.parseLong(requested) : Long.MAX_VALUE;
+            } catch (NumberFormatException e) {
+                after = 0; // not one of ours: the page needs to catch up on everything
+            }
+            if (!events.tryOpen()) {
+                sendError(exchange, 503, "Too many open event streams");
+                return;
+            }
+
+            if ("1".equals(getQueryParam(exchange, "poll"))) {
+                events.park(weekId, exchange, after);
+                // checked after parking: a change that slipped in before is caught here, a later one by the hub
+                ChecklistEvents.Event missed = catchUp(weekId, after);
+                if (missed != null && events.unpark(weekId, exchange)) {
+                    events.answer(exchange, missed.id, missed);
+                }
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            exchange.sendResponseHeaders(200, 0);
+            events.stream(weekId, exchange, catchUp(weekId, after));
         }
 
-        private WeeklyChecklist createDefaultChecklist(String weekId) {
-            Map<String, DayChecklist> days = new HashMap<>();
-            return new WeeklyChecklist(weekId, days, new ArrayList<>());
+        // what a page that last saw version "after" has to do first: reload if the week has been
+        // replaced since, sync if only tasks changed, nothing if it is current
+        private static ChecklistEvents.Event catchUp(String weekId, long after) {
+            WeeklyChecklist checklist = checklists.getIfPresent(weekId);
+            if (checklist == null || checklist.getVersion() <= after) return null;
+            if (checklist.getCreatedVersion() > after) {
+                return new ChecklistEvents.Event(checklist.getVersion(), "reload", "{}");
+            }
+            return new ChecklistEvents.Event(checklist.getVersion(), "sync", "{}");
         }
     }
 
-    static class NavigatorHandler implements HttpHandler {
+    // GET /search?q=...: ranked task and resource matches across all weeks, as a page or (format=json) JSON
+    static class SearchHandler implements HttpHandler {
+        private static final int DEFAULT_LIMIT = 25;
+        private static final int MAX_LIMIT = 200;
+
         @Override
         public void handle(HttpExchange exchange) throws IOException {
             if (!"GET".equals(exchange.getRequestMethod())) {
                 sendError(exchange, 405, "Method not allowed");
                 return;
             }
+            String query = getQueryParam(exchange, "q");
+            if (query == null) query = "";
+            int limit = DEFAULT_LIMIT;
+            try {
+                String requested = getQueryParam(exchange, "limit");
+                if (requested != null) limit = Math.max(1, Math.min(MAX_LIMIT, Integer.parseInt(requested)));
+            } catch (NumberFormatException e) {
+                sendError(exchange, 400, "Invalid 'limit' parameter");
+                return;
+            }
+
+            long started = System.nanoTime();
+            List<SearchIndex.Match> matches = searchIndex.search(query, limit);
+            long micros = (System.nanoTime() - started) / 1000;
+
+            if ("json".equals(getQueryParam(exchange, "format"))) {
+                ObjectNode response = objectMapper.createObjectNode();
+                response.put("query", query);
+                response.put("tookMicros", micros);
+                ArrayNode results = response.putArray("results");
+                for (SearchIndex.Match match : matches) {
+                    SearchIndex.Document doc = match.getDocument();
+                    ObjectNode result = results.addObject();
+                    result.put("type", doc.isTask() ? "task" : "resource");
+                    result.put("week", doc.getWeekId());
+                    if (doc.isTask()) {
+                        result.put("date", doc.getDate());
+                        result.put("key", taskKey(doc));
+                    } else {
+                        result.put("url", doc.getUrl());
+                    }
+                    result.put("text", doc.getText());
+                    result.put("score", match.getScore());
+                    result.put("link", checklistLink(doc));
+                }
+                sendResponse(exchange, 200, objectMapper.writeValueAsString(response), "application/json");
+                return;
+            }
+            sendResponse(exchange, 200, renderResults(query, matches, micros), "text/html; charset=UTF-8");
+        }
 
-            String html = renderNavigatorHtml();
-            sendResponse(exchange, 200, html, "text/html; charset=utf-8");
-        }
-
-        private String renderNavigatorHtml() {
-            StringBuilder html = new StringBuilder();
-            html.append("<!DOCTYPE html>\n");
-            html.append("<html lang=\"en\">\n");
-            html.append("<head>\n");
-            html.append("    <meta charset=\"UTF-8\">\n");
-            html.append("    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n");
-            html.append("    <title>BlackBerry Navigator</title>\n");
-            html.append("    <style>\n");
-            html.append("        body { font-family: Arial, sans-serif; margin: 20px; background: #f5f5f5; }\n");
-            html.append("        .container { max-width: 800px; margin: 0 auto; background: white; padding: 20px; border-radius: 5px; }\n");
-            html.append("        h1 { color: #333; border-bottom: 2px solid #0066cc; padding-bottom: 10px; }\n");
-            html.append("        h2 { color: #666; margin-top: 30px; margin-bottom: 15px; }\n");
-            html.append("        ul { list-style-type: none; padding: 0; }\n");
-            html.append("        li { margin: 10px 0; padding: 10px; background: #fafafa; border-left: 3px solid #0066cc; }\n");
-            html.append("        a { color: #0066cc; text-decoration: none; font-weight: bold; }\n");
-            html.append("        a:hover { text-decoration: underline; }\n");
-            html.append("        .description { color: #666; font-size: 0.9em; margin-top: 5px; }\n");
-            html.append("        nav { margin: 20px 0; }\n");
-            html.append("        nav a { margin-right: 15px; }\n");
-            html.append("    </style>\n");
-            html.append("</head>\n");
-            html.append("<body>\n");
+        private static String taskKey(SearchIndex.Document doc) {
+            return doc.getWeekId() + "-" + doc.getDate() + "-" + doc.getTaskId();
+        }
+
+        // tasks jump straight to their checkbox on the week page
+        private static String checklistLink(SearchIndex.Document doc) {
+            String link = "/checklist?week=" + doc.getWeekId();
+            return doc.isTask() ? link + "#" + taskKey(doc) : link;
+        }
+
+        private static String renderResults(String query, List<SearchIndex.Match> matches, long micros) {
+            String q = ChecklistRenderer.escapeHtml(query);
+            StringBuilder html = new StringBuilder(2048 + matches.size() * 256);
+            html.append(PageStyle.head(query.isEmpty() ? "Search" : "Search - " + q, "search.css"));
             html.append("    <div class=\"container\">\n");
-            html.append("        <h1>Essential Resources</h1>\n");
+            html.append("        <h1>Search</h1>\n");
             html.append("        <nav>\n");
-            html.append("            <a href=\"/checklist?week=2025-W1\">Weekly Checklist</a>\n");
-            html.append("            <a href=\"/today\">Home</a>\n");
+            html.append("            <a href=\"/\">Home</a>\n");
+            html.append("            <a href=\"/checklist\">Current Week</a>\n");
             html.append("        </nav>\n");
+            html.append("        <form action=\"/search\" method=\"get\">\n");
+            html.append("            <input type=\"text\" name=\"q\" value=\"").append(q).append("\" autofocus>\n");
+            html.append("            <button type=\"submit\">Search</button>\n");
+            html.append("        </form>\n");
+            if (!query.isEmpty()) {
+                html.append("        <p class=\"meta\">").append(matches.size()).append(" match(es) in ")
+                        .append(micros < 1000 ? micros + " &micro;s" : micros / 1000 + " ms").append("</p>\n");
+                html.append("        <ul>\n");
+                for (SearchIndex.Match match : matches) {
+                    SearchIndex.Document doc = match.getDocument();
+                    html.append("            <li>");
+                    if (doc.isTask()) {
+                        html.append("<a href=\"").append(ChecklistRenderer.escapeHtml(checklistLink(doc))).append("\">")
+                                .append(ChecklistRenderer.escapeHtml(doc.getText())).append("</a>\n");
+                        html.append("                <div class=\"meta\">").append(ChecklistRenderer.escapeHtml(doc.getWeekId()))
+                                .append(" &middot; ").append(ChecklistRenderer.escapeHtml(ChecklistRenderer.formatDate(doc.getDate())))
+                                .append("</div>");
+                    } else {
+                        html.append("<a href=\"").append(ChecklistRenderer.escapeHtml(doc.getUrl())).append("\">")
+                                .append(ChecklistRenderer.escapeHtml(doc.getText())).append("</a>\n");
+                        html.append("                <div class=\"meta\">Resource &middot; <a href=\"")
+                                .append(ChecklistRenderer.escapeHtml(checklistLink(doc))).append("\">")
+                                .append(ChecklistRenderer.escapeHtml(doc.getWeekId())).append("</a>");
+                        if (doc.getCategory() != null && !doc.getCategory().isEmpty()) {
+                            html.append(" &middot; ").append(ChecklistRenderer.escapeHtml(doc.getCategory()));
+                        }
+                        html.append("</div>");
+                    }
+                    html.append("</li>\n");
+                }
+                html.append("        </ul>\n");
+            }
+            html.append("    </div>\n");
+            html.append("</body>\n");
+            html.append("</html>\n");
+            return html.toString();
+        }
+    }
 
-            // Coding Resources
-            html.append("        <h2>Code</h2>\n");
-            html.append("        <ul>\n");
-            html.append("            <li><a href=\"https://html.duckduckgo.com/?q=java+spring+boot\">DuckDuckGo HTML (Java Search)</a>\n");
-            html.append("                <div class=\"description\">Lightweight search - works on BB10</div></li>\n");
-            html.append("            <li><a href=\"https://html.duckduckgo.com/?q=stackoverflow+java\">DuckDuckGo HTML (Stack Overflow)</a>\n");
-            html.append("                <div class=\"description\">Search Stack Overflow via DuckDuckGo</div></li>\n");
-            html.append("            <li><a href=\"https://docs.oracle.com/javase/17/docs/api/index.html\">Java 17 API Docs</a>\n");
-            html.append("                <div class=\"description\">Official Java documentation</div></li>\n");
-            html.append("        </ul>\n");
-
-            // University Resources
-            html.append("        <h2>College</h2>\n");
-            html.append("        <ul>\n");
-            html.append("            <li><a href=\"https://html.duckduckgo.com/?q=cs+algorithms+pdf\">PDF Search (Algorithms)</a>\n");
-            html.append("                <div class=\"description\">Search for algorithm PDFs</div></li>\n");
-            html.append("            <li><a href=\"https://html.duckduckgo.com/?q=computer+science+lecture+notes\">Lecture Notes Search</a>\n");
-            html.append("                <div class=\"description\">Find CS lecture materials</div></li>\n");
-            html.append("        </ul>\n");
-
-            // Reference Resources
-            html.append("        <h2>Reference</h2>\n");
-            html.append("        <ul>\n");
-            html.append("            <li><a href=\"https://html.duckduckgo.com/?q=regex+cheat+sheet\">Regex Reference</a>\n");
-            html.append("                <div class=\"description\">Regular expressions guide</div></li>\n");
-            html.append("            <li><a href=\"https://html.duckduckgo.com/?q=git+commands+cheat+sheet\">Git Commands</a>\n");
-            html.append("                <div class=\"description\">Quick Git reference</div></li>\n");
-            html.append("            <li><a href=\"https://html.duckduckgo.com/?q=maven+commands\">Maven Reference</a>\n");
-            html.append("                <div class=\"description\">Maven build tool help</div></li>\n");
-            html.append("        </ul>\n");
-
-            // Documentation
-            html.append("        <h2>Documentation</h2>\n");
-            html.append("        <ul>\n");
-            html.append("            <li><a href=\"https://html.duckduckgo.com/?q=spring+boot+documentation\">Spring Boot Docs</a>\n");
-            html.append("                <div class=\"description\">Spring Boot framework docs</div></li>\n");
-            html.append("            <li><a href=\"https://html.duckduckgo.com/?q=jackson+json+java\">Jackson JSON</a>\n");
-            html.append("                <div class=\"description\">JSON processing library</div></li>\n");
-            html.append("        </ul>\n");
+    // GET /stats: planned vs. estimated time, task counts and completion overall, per priority and
+    // per week; /stats?week=2025-W1 breaks one week down by day. Served from StatsIndex, so this
+    // never touches the checklists themselves.
+    static class StatsHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+            String weekId = getQueryParam(exchange, "week");
+            StatsIndex.WeekStats week = null;
+            if (weekId != null) {
+                if (WeekUtils.normalize(weekId) == null) {
+                    sendError(exchange, 400, "Malformed week: " + weekId);
+                    return;
+                }
+                week = stats.getWeek(WeekUtils.normalize(weekId));
+                if (week == null) {
+                    sendError(exchange, 404, "No statistics for week: " + weekId);
+                    return;
+                }
+            }
+            boolean json = "json".equals(getQueryParam(exchange, "format"));
+            if (json) {
+                ObjectNode response = objectMapper.createObjectNode();
+                if (week != null) {
+                    response.put("week", week.getWeekId());
+                    writeTotals(response.putObject("total"), week.getTotal());
+                    ObjectNode days = response.putObject("days");
+                    week.getDays().forEach((date, totals) -> writeTotals(days.putObject(date), totals));
+                    ObjectNode priorities = response.putObject("priorities");
+                    week.getPriorities().forEach((priority, totals) -> writeTotals(priorities.putObject(priority), totals));
+                } else {
+                    writeTotals(response.putObject("overall"), stats.getOverall());
+                    ObjectNode priorities = response.putObject("priorities");
+                    stats.getByPriority().forEach((priority, totals) -> writeTotals(priorities.putObject(priority), totals));
+                    ArrayNode weeks = response.putArray("weeks");
+                    stats.getWeeks().forEach((id, totals) -> writeTotals(weeks.addObject().put("week", id), totals));
+                }
+                sendResponse(exchange, 200, objectMapper.writeValueAsString(response), "application/json");
+                return;
+            }
+            sendResponse(exchange, 200, week != null ? renderWeek(week) : renderOverview(), "text/html; charset=UTF-8");
+        }
+
+        private static void writeTotals(ObjectNode node, StatsIndex.Totals totals) {
+            node.put("tasks", totals.getTasks());
+            node.put("completed", totals.getCompleted());
+            node.put("completionRatio", Math.round(totals.getCompletionRatio() * 1000) / 1000.0);
+            node.put("plannedMinutes", totals.getPlannedMinutes());
+            node.put("estimatedMinutes", totals.getEstimatedMinutes());
+            node.put("completedMinutes", totals.getCompletedMinutes());
+        }
+
+        private static String renderOverview() {
+            StatsIndex.Totals overall = stats.getOverall();
+            Map<String, StatsIndex.Totals> weeks = stats.getWeeks();
+            StringBuilder html = new StringBuilder(4096 + weeks.size() * 200);
+            startPage(html, "Statistics");
+            html.append("        <p>").append(weeks.size()).append(" week(s), ").append(overall.getTasks())
+                    .append(" task(s), ").append(percent(overall)).append(" done</p>\n");
+            startTable(html, "Priority", false);
+            row(html, "All", overall, false);
+            stats.getByPriority().forEach((priority, totals) -> row(html, ChecklistRenderer.escapeHtml(priority), totals, false));
+            html.append("        </table>\n");
+            html.append("        <h2>Weeks</h2>\n");
+            startTable(html, "Week", true);
+            weeks.forEach((weekId, totals) -> {
+                String id = ChecklistRenderer.escapeHtml(weekId);
+                row(html, "<a href=\"/stats?week=" + id + "\">" + id + "</a>", totals, true);
+            });
+            html.append("        </table>\n");
+            return endPage(html);
+        }
+
+        private static String renderWeek(StatsIndex.WeekStats week) {
+            StringBuilder html = new StringBuilder(4096);
+            String id = ChecklistRenderer.escapeHtml(week.getWeekId());
+            startPage(html, "Statistics: " + id);
+            html.append("        <p><a href=\"/checklist?week=").append(id).append("\">Open checklist</a> &middot; ")
+                    .append(percent(week.getTotal())).append(" done</p>\n");
+            startTable(html, "Day", true);
+            week.getDays().forEach((date, totals) -> row(html, ChecklistRenderer.formatDate(date), totals, true));
+            row(html, "<strong>Week</strong>", week.getTotal(), true);
+            html.append("        </table>\n");
+            html.append("        <h2>By priority</h2>\n");
+            startTable(html, "Priority", false);
+            week.getPriorities().forEach((priority, totals) -> row(html, ChecklistRenderer.escapeHtml(priority), totals, false));
+            html.append("        </table>\n");
+            return endPage(html);
+        }
+
+        private static void startPage(StringBuilder html, String title) {
+            html.append(PageStyle.head(title, "stats.css"));
+            html.append("    <div class=\"container\">\n");
+            html.append("        <h1>").append(title).append("</h1>\n");
+            html.append("        <nav>\n");
+            html.append("            <a href=\"/\">Home</a>\n");
+            html.append("            <a href=\"/checklist\">Current Week</a>\n");
+            html.append("            <a href=\"/stats\">All Weeks</a>\n");
+            html.append("        </nav>\n");
+        }
 
+        private static String endPage(StringBuilder html) {
             html.append("    </div>\n");
             html.append("</body>\n");
             html.append("</html>\n");
-
             return html.toString();
         }
+
+        // planned time only exists per day, so priority tables leave that column out
+        private static void startTable(StringBuilder html, String label, boolean planned) {
+            html.append("        <table>\n");
+            html.append("            <tr><th>").append(label).append("</th>");
+            if (planned) html.append("<th>Planned</th>");
+            html.append("<th>Estimated</th><th>Done</th><th>Tasks</th><th>Done %</th></tr>\n");
+        }
+
+        private static void row(StringBuilder html, String label, StatsIndex.Totals totals, boolean planned) {
+            html.append("            <tr><td>").append(label).append("</td>");
+            if (planned) html.append("<td>").append(TimeParser.format(totals.getPlannedMinutes())).append("</td>");
+            html.append("<td>").append(TimeParser.format(totals.getEstimatedMinutes())).append("</td>");
+            html.append("<td>").append(TimeParser.format(totals.getCompletedMinutes())).append("</td>");
+            html.append("<td>").append(totals.getCompleted()).append("/").append(totals.getTasks()).append("</td>");
+            html.append("<td>").append(percent(totals)).append("</td></tr>\n");
+        }
+
+        private static String percent(StatsIndex.Totals totals) {
+            return Math.round(totals.getCompletionRatio() * 100) + "%";
+        }
+    }
+
+    static class MetricsHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            sendResponse(exchange, 200, Metrics.render(), "text/plain; version=0.0.4; charset=utf-8");
+        }
+    }
+
+    // GET /static/checklist.<hash>.js: stylesheets and scripts from StaticAssets. The hash in the name
+    // changes with the content, so a fingerprinted URL is cached for a year without revalidation.
+    static class StaticHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+            String fileName = exchange.getRequestURI().getPath().substring("/static/".length());
+            StaticAssets.Asset asset = StaticAssets.lookup(fileName);
+            if (asset == null) {
+                sendError(exchange, 404, "Not found");
+                return;
+            }
+            if (asset.isFingerprinted(fileName)) {
+                exchange.getResponseHeaders().set("Cache-Control", "public, max-age=31536000, immutable");
+            }
+            sendPage(exchange, asset.getPage());
+        }
+    }
+
+    static class NavigatorHandler implements HttpHandler {
+        private static final CachedPage PAGE = CachedPage.html(renderNavigatorHtml());
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+
+            sendPage(exchange, PAGE);
+        }
+
+        private static String renderNavigatorHtml() {
+            return PageStyle.head("BlackBerry Navigator", "navigator.css") + """
+                        <div class="container">
+                            <h1>Essential Resources</h1>
+                            <nav>
+                                <a href="/checklist?week=2025-W1">Weekly Checklist</a>
+                                <a href="/today">Home</a>
+                            </nav>
+                            <h2>Code</h2>
+                            <ul>
+                                <li><a href="https://html.duckduckgo.com/?q=java+spring+boot">DuckDuckGo HTML (Java Search)</a>
+                                    <div class="description">Lightweight search - works on BB10</div></li>
+                                <li><a href="https://html.duckduckgo.com/?q=stackoverflow+java">DuckDuckGo HTML (Stack Overflow)</a>
+                                    <div class="description">Search Stack Overflow via DuckDuckGo</div></li>
+                                <li><a href="https://docs.oracle.com/javase/17/docs/api/index.html">Java 17 API Docs</a>
+                                    <div class="description">Official Java documentation</div></li>
+                            </ul>
+                            <h2>College</h2>
+                            <ul>
+                                <li><a href="https://html.duckduckgo.com/?q=cs+algorithms+pdf">PDF Search (Algorithms)</a>
+                                    <div class="description">Search for algorithm PDFs</div></li>
+                                <li><a href="https://html.duckduckgo.com/?q=computer+science+lecture+notes">Lecture Notes Search</a>
+                                    <div class="description">Find CS lecture materials</div></li>
+                            </ul>
+                            <h2>Reference</h2>
+                            <ul>
+                                <li><a href="https://html.duckduckgo.com/?q=regex+cheat+sheet">Regex Reference</a>
+                                    <div class="description">Regular expressions guide</div></li>
+                                <li><a href="https://html.duckduckgo.com/?q=git+commands+cheat+sheet">Git Commands</a>
+                                    <div class="description">Quick Git reference</div></li>
+                                <li><a href="https://html.duckduckgo.com/?q=maven+commands">Maven Reference</a>
+                                    <div class="description">Maven build tool help</div></li>
+                            </ul>
+                            <h2>Documentation</h2>
+                            <ul>
+                                <li><a href="https://html.duckduckgo.com/?q=spring+boot+documentation">Spring Boot Docs</a>
+                                    <div class="description">Spring Boot framework docs</div></li>
+                                <li><a href="https://html.duckduckgo.com/?q=jackson+json+java">Jackson JSON</a>
+                                    <div class="description">JSON processing library</div></li>
+                            </ul>
+                        </div>
+                    </body>
+                    </html>
+                    """;
+        }
     }
 
     // Utility methods
     private static String getQueryParam(HttpExchange exchange, String paramName) {
-        String query = exchange.getRequestURI().getQuery();
+        return getQueryParam(exchange.getRequestURI().getQuery(), paramName);
+    }
+
+    // package-private so the benchmarks module can call it without an HttpExchange
+    static String getQueryParam(String query, String paramName) {
         if (query == null) return null;
         String[] params = query.split("&");
         for (String param : params) {
@@ -641,14 +1548,45 @@ public class ServerMain {
         return null;
     }
 
-    private static String readRequestBody(HttpExchange exchange) throws IOException {
-        try (InputStream is = exchange.getRequestBody()) {
-            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+    // a Content-Length over the limit is turned away before anything is read
+    private static boolean declaresTooLarge(HttpExchange exchange, long maxBytes) {
+        String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (declared == null) return false;
+        try {
+            return Long.parseLong(declared.trim()) > maxBytes;
+        } catch (NumberFormatException e) {
+            return false;
         }
     }
 
+    private static void sendTooLarge(HttpExchange exchange, long maxBytes) throws IOException {
+        exchange.getResponseHeaders().set("Connection", "close"); // the rest of the body is not read
+        sendError(exchange, 413, "Request body larger than " + maxBytes + " bytes");
+    }
+
     private static void sendResponse(HttpExchange exchange, int statusCode, String response, String contentType) throws IOException {
-        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        sendResponse(exchange, statusCode, response.getBytes(StandardCharsets.UTF_8), contentType);
+    }
+
+    // compresses on the fly when the client accepts it and the body is big enough to be worth it
+    private static void sendResponse(HttpExchange exchange, int statusCode, byte[] bytes, String contentType) throws IOException {
+        int level = Compression.levelFor(contentType, bytes.length);
+        Compression.Encoding encoding = null;
+        if (level > 0) {
+            exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+            encoding = Compression.negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        }
+        if (encoding != null) {
+            byte[] compressed = Compression.compress(bytes, encoding, level);
+            if (compressed.length < bytes.length) {
+                exchange.getResponseHeaders().set("Content-Encoding", encoding.getToken());
+                bytes = compressed;
+            }
+        }
+        writeBody(exchange, statusCode, bytes, contentType);
+    }
+
+    private static void writeBody(HttpExchange exchange, int statusCode, byte[] bytes, String contentType) throws IOException {
         exchange.getResponseHeaders().add("Content-Type", contentType);
         exchange.sendResponseHeaders(statusCode, bytes.length);
         try (OutputStream os = exchange.getResponseBody()) {
@@ -656,6 +1594,41 @@ public class ServerMain {
         }
     }
 
+    // sends a prebuilt page in the best encoding it has, or a bodyless 304 when the client's copy is still current
+    private static void sendPage(HttpExchange exchange, CachedPage page) throws IOException {
+        Compression.Encoding encoding = Compression.negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        byte[] body = page.getBody(encoding);
+        if (body == null) {
+            encoding = null;
+            body = page.getBody();
+        }
+        String etag = encoding != null ? encoding.etag(page.getEtag()) : page.getEtag();
+        if (page.isNotModified(exchange)) {
+            sendNotModified(exchange, etag, page.getLastModified());
+            return;
+        }
+        addValidators(exchange, etag, page.getLastModifiedHeader());
+        if (encoding != null) {
+            exchange.getResponseHeaders().set("Content-Encoding", encoding.getToken());
+        }
+        writeBody(exchange, 200, body, page.getContentType());
+    }
+
+    private static void sendNotModified(HttpExchange exchange, String etag, long lastModified) throws IOException {
+        addValidators(exchange, etag, CachedPage.httpDate(lastModified));
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+    }
+
+    private static void addValidators(HttpExchange exchange, String etag, String lastModified) {
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Last-Modified", lastModified);
+        if (!exchange.getResponseHeaders().containsKey("Cache-Control")) {
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache"); // always revalidate, it's cheap
+        }
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+    }
+
     private static void sendError(HttpExchange exchange, int statusCode, String message) throws IOException {
         sendResponse(exchange, statusCode, "Error: " + message, "text/plain");
     }
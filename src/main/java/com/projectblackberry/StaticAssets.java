@@ -0,0 +1,140 @@
+package com.projectblackberry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// The stylesheets and scripts behind /static, read from src/main/resources/static once at class
+// load, minified and kept in memory with their gzip and deflate variants. Pages link to them by
+// a URL that carries a hash of the content (/static/checklist.1f2e3d4c5b6a7980.js), so the file
+// behind a URL never changes and the phone can cache it for good; a new version of a file is a
+// new URL. Every page gets one stylesheet: base.css followed by the page's own rules; scripts
+// are put together the same way from the parts they share.
+public final class StaticAssets {
+    private static final String CSS = "text/css; charset=utf-8";
+    private static final String JS = "application/javascript; charset=utf-8";
+    private static final Map<String, Asset> byName = new LinkedHashMap<>();
+    private static final Map<String, Asset> byFileName = new LinkedHashMap<>();
+
+    static {
+        for (String page : new String[] {"home", "setup", "checklist", "navigator", "search", "stats"}) {
+            add(page + ".css", CSS, "base.css", page + ".css");
+        }
+        add("checklist.js", JS, "rows.js", "checklist.js");
+        add("range.js", JS, "rows.js", "range.js");
+    }
+
+    public static final class Asset {
+        private final String name;
+        private final String fileName;
+        private final CachedPage page;
+
+        private Asset(String name, String fileName, CachedPage page) {
+            this.name = name;
+            this.fileName = fileName;
+            this.page = page;
+        }
+
+        // Getters
+        public String getName() { return name; }
+        public String getFileName() { return fileName; }
+        public String getUrl() { return "/static/" + fileName; }
+        public CachedPage getPage() { return page; }
+
+        // only the fingerprinted name may be cached for good; the plain one is there for people and scripts
+        public boolean isFingerprinted(String requested) {
+            return fileName.equals(requested);
+        }
+    }
+
+    private StaticAssets() {
+    }
+
+    private static void add(String name, String contentType, String... sources) {
+        StringBuilder text = new StringBuilder();
+        for (String source : sources) {
+            text.append(read(source)).append('\n');
+        }
+        String minified = contentType == CSS ? minifyCss(text.toString()) : minifyJs(text.toString());
+        CachedPage page = CachedPage.asset(minified.getBytes(StandardCharsets.UTF_8), contentType);
+        int dot = name.lastIndexOf('.');
+        String hash = page.getEtag().substring(1, page.getEtag().length() - 1); // the ETag is a content hash
+        String fileName = name.substring(0, dot) + "." + hash + name.substring(dot);
+        Asset asset = new Asset(name, fileName, page);
+        byName.put(name, asset);
+        byFileName.put(fileName, asset);
+    }
+
+    private static String read(String source) {
+        try (InputStream in = StaticAssets.class.getResourceAsStream("/static/" + source)) {
+            if (in == null) throw new IllegalStateException("Missing static asset: " + source);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // the fingerprinted URL to put in a page
+    public static String url(String name) {
+        Asset asset = byName.get(name);
+        if (asset == null) throw new IllegalArgumentException("Unknown static asset: " + name);
+        return asset.getUrl();
+    }
+
+    // by fingerprinted or plain file name; null if there is no such asset
+    public static Asset lookup(String fileName) {
+        Asset asset = byFileName.get(fileName);
+        return asset != null ? asset : byName.get(fileName);
+    }
+
+    // drops comments and the whitespace that carries no meaning; quoted strings are left alone
+    static String minifyCss(String css) {
+        StringBuilder out = new StringBuilder(css.length());
+        boolean space = false;
+        for (int i = 0; i < css.length(); i++) {
+            char c = css.charAt(i);
+            if (c == '/' && i + 1 < css.length() && css.charAt(i + 1) == '*') {
+                int end = css.indexOf("*/", i + 2);
+                i = end < 0 ? css.length() : end + 1;
+                space = true;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            char last = out.length() > 0 ? out.charAt(out.length() - 1) : '{';
+            if (space && "{};,>:".indexOf(last) < 0 && "{};,>".indexOf(c) < 0) {
+                out.append(' ');
+            }
+            space = false;
+            if (c == '"' || c == '\'') {
+                int end = css.indexOf(c, i + 1);
+                end = end < 0 ? css.length() - 1 : end;
+                out.append(css, i, end + 1);
+                i = end;
+                continue;
+            }
+            if (c == '}' && last == ';') {
+                out.setLength(out.length() - 1); // the last declaration needs no semicolon
+            }
+            out.append(c);
+        }
+        return out.toString();
+    }
+
+    // Only what is safe without parsing: indentation, blank lines and lines that are just a comment.
+    // Line breaks stay, so automatic semicolon insertion sees the same script.
+    static String minifyJs(String js) {
+        StringBuilder out = new StringBuilder(js.length());
+        for (String line : js.split("\n")) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("//")) continue;
+            out.append(trimmed).append('\n');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,206 @@
+package com.projectblackberry;
+
+import com.projectblackberry.model.DayChecklist;
+import com.projectblackberry.model.TaskItem;
+import com.projectblackberry.model.WeeklyChecklist;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Materialized planning statistics: totals per day, per week, per priority and overall. Importing
+// a week replaces that week's aggregate and moves the overall totals by the difference; toggling a
+// task moves a handful of counters, so updates cost the same with three weeks as with three years.
+// Only the /stats overview grows with the history: it copies one row of totals per week, already
+// in week order.
+public class StatsIndex {
+    static final List<String> PRIORITIES = List.of("CRITICAL", "HIGH", "MEDIUM", "LOW");
+
+    // one row of numbers; mutable under the index lock, handed out as copies
+    public static class Totals {
+        int tasks;
+        int completed;
+        long estimatedMinutes;
+        long completedMinutes;
+        long plannedMinutes;
+
+        Totals() {
+        }
+
+        Totals(Totals other) {
+            add(other, 1);
+        }
+
+        void add(Totals other, int sign) {
+            tasks += sign * other.tasks;
+            completed += sign * other.completed;
+            estimatedMinutes += sign * other.estimatedMinutes;
+            completedMinutes += sign * other.completedMinutes;
+            plannedMinutes += sign * other.plannedMinutes;
+        }
+
+        void addTask(TaskItem task) {
+            tasks++;
+            estimatedMinutes += task.getEstimatedMinutes();
+            if (task.isCompleted()) {
+                completed++;
+                completedMinutes += task.getEstimatedMinutes();
+            }
+        }
+
+        void completionChanged(TaskItem task, boolean completed) {
+            int sign = completed ? 1 : -1;
+            this.completed += sign;
+            this.completedMinutes += sign * task.getEstimatedMinutes();
+        }
+
+        // Getters
+        public int getTasks() { return tasks; }
+        public int getCompleted() { return completed; }
+        public long getEstimatedMinutes() { return estimatedMinutes; }
+        public long getCompletedMinutes() { return completedMinutes; }
+        public long getPlannedMinutes() { return plannedMinutes; }
+        public double getCompletionRatio() { return tasks == 0 ? 0 : (double) completed / tasks; }
+    }
+
+    public static class WeekStats {
+        final String weekId;
+        final WeeklyChecklist source; // the instance the counters were built from
+        final Totals total = new Totals();
+        final Map<String, Totals> days = new TreeMap<>();
+        final Map<String, Totals> priorities = new HashMap<>();
+
+        WeekStats(String weekId, WeeklyChecklist source) {
+            this.weekId = weekId;
+            this.source = source;
+        }
+
+        WeekStats(WeekStats other) {
+            this(other.weekId, other.source);
+            total.add(other.total, 1);
+            other.days.forEach((date, totals) -> days.put(date, new Totals(totals)));
+            other.priorities.forEach((priority, totals) -> priorities.put(priority, new Totals(totals)));
+        }
+
+        // Getters
+        public String getWeekId() { return weekId; }
+        public Totals getTotal() { return total; }
+        public Map<String, Totals> getDays() { return days; }
+        public Map<String, Totals> getPriorities() { return sortedByPriority(priorities); }
+    }
+
+    private final TreeMap<Integer, WeekStats> weeks = new TreeMap<>(); // by WeekUtils.key, so in week order
+    private final Totals overall = new Totals();
+    private final Map<String, Totals> byPriority = new HashMap<>();
+
+    // the only place a whole week is walked, and only that one week
+    private static WeekStats aggregate(String weekId, WeeklyChecklist checklist) {
+        WeekStats stats = new WeekStats(weekId, checklist);
+        for (DayChecklist day : checklist.getDays().values()) {
+            Totals dayTotals = stats.days.computeIfAbsent(day.getDate(), d -> new Totals());
+            dayTotals.plannedMinutes += day.getPlannedMinutes();
+            for (TaskItem task : day.getTasks()) {
+                dayTotals.addTask(task);
+                stats.priorities.computeIfAbsent(task.getPriority().name(), p -> new Totals()).addTask(task);
+            }
+            stats.total.add(dayTotals, 1);
+        }
+        return stats;
+    }
+
+    // replaces whatever was recorded for the week; the checklist should not be visible to task
+    // toggles yet, or a toggle racing with this could be counted twice
+    public void index(String weekId, WeeklyChecklist checklist) {
+        WeekStats stats = aggregate(weekId, checklist);
+        synchronized (this) {
+            replaceLocked(weekId, stats);
+        }
+    }
+
+    // background indexing of weeks read from disk: never replaces what an import put there meanwhile
+    public void indexIfAbsent(String weekId, WeeklyChecklist checklist) {
+        WeekStats stats = aggregate(weekId, checklist);
+        synchronized (this) {
+            if (!weeks.containsKey(WeekUtils.key(weekId))) {
+                replaceLocked(weekId, stats);
+            }
+        }
+    }
+
+    private void replaceLocked(String weekId, WeekStats stats) {
+        WeekStats old = weeks.put(WeekUtils.key(weekId), stats);
+        if (old != null) {
+            apply(old, -1);
+        }
+        apply(stats, 1);
+    }
+
+    private void apply(WeekStats stats, int sign) {
+        overall.add(stats.total, sign);
+        stats.priorities.forEach((priority, totals) -> {
+            Totals global = byPriority.computeIfAbsent(priority, p -> new Totals());
+            global.add(totals, sign);
+            if (global.tasks == 0) {
+                byPriority.remove(priority);
+            }
+        });
+    }
+
+    // a task flipped; only counts if the week's numbers were built from this very checklist
+    // (a toggle on an instance that has since been replaced is already reflected, or lost)
+    public synchronized void completionChanged(WeeklyChecklist checklist, String date, TaskItem task, boolean completed) {
+        WeekStats stats = weeks.get(WeekUtils.key(checklist.getWeekId()));
+        if (stats == null || stats.source != checklist) return;
+        stats.total.completionChanged(task, completed);
+        Totals day = stats.days.get(date);
+        if (day != null) day.completionChanged(task, completed);
+        Totals priority = stats.priorities.get(task.getPriority().name());
+        if (priority != null) priority.completionChanged(task, completed);
+        overall.completionChanged(task, completed);
+        Totals global = byPriority.get(task.getPriority().name());
+        if (global != null) global.completionChanged(task, completed);
+    }
+
+    public synchronized Totals getOverall() {
+        return new Totals(overall);
+    }
+
+    public synchronized Map<String, Totals> getByPriority() {
+        Map<String, Totals> copy = new HashMap<>();
+        byPriority.forEach((priority, totals) -> copy.put(priority, new Totals(totals)));
+        return sortedByPriority(copy);
+    }
+
+    // week id -> the week's totals, newest week first; getWeek has the breakdown of one of them
+    public synchronized Map<String, Totals> getWeeks() {
+        Map<String, Totals> copy = new LinkedHashMap<>();
+        for (WeekStats stats : weeks.descendingMap().values()) {
+            copy.put(stats.weekId, new Totals(stats.total));
+        }
+        return copy;
+    }
+
+    public synchronized WeekStats getWeek(String weekId) {
+        WeekStats stats = weeks.get(WeekUtils.key(weekId));
+        return stats != null ? new WeekStats(stats) : null;
+    }
+
+    public synchronized int getWeekCount() {
+        return weeks.size();
+    }
+
+    public synchronized boolean contains(String weekId) {
+        return weeks.containsKey(WeekUtils.key(weekId));
+    }
+
+    // CRITICAL, HIGH, MEDIUM, LOW; the keys are always Priority names
+    private static Map<String, Totals> sortedByPriority(Map<String, Totals> totals) {
+        Map<String, Totals> sorted = new LinkedHashMap<>();
+        for (String priority : PRIORITIES) {
+            if (totals.containsKey(priority)) sorted.put(priority, totals.get(priority));
+        }
+        return sorted;
+    }
+}
@@ -0,0 +1,51 @@
+package com.projectblackberry;
+
+import com.projectblackberry.model.WeeklyChecklist;
+
+import java.io.IOException;
+import java.util.Collection;
+
+// Where ChecklistStorage keeps weeks: one file per week ("files") or an append-only journal
+// in front of those files ("journal")
+public interface StorageEngine {
+
+    void save(WeeklyChecklist checklist) throws IOException;
+
+    // the checklist already holds the new values; engines may persist just the changes or the whole week
+    void saveTaskChanges(WeeklyChecklist checklist, Collection<TaskChange> changes) throws IOException;
+
+    // a batch of weeks, e.g. from a bulk import; engines that can commit them together should
+    default void saveAll(Collection<WeeklyChecklist> checklists) throws IOException {
+        for (WeeklyChecklist checklist : checklists) {
+            save(checklist);
+        }
+    }
+
+    // null if the week has never been saved
+    WeeklyChecklist load(String weekId);
+
+    boolean exists(String weekId);
+
+    default void close() {
+    }
+
+    class TaskChange {
+        private final String date;
+        private final String taskId;
+        private final boolean completed;
+        private final long updatedAt;
+
+        public TaskChange(String date, String taskId, boolean completed, long updatedAt) {
+            this.date = date;
+            this.taskId = taskId;
+            this.completed = completed;
+            this.updatedAt = updatedAt;
+        }
+
+        // Getters
+        public String getDate() { return date; }
+        public String getTaskId() { return taskId; }
+        public boolean isCompleted() { return completed; }
+        public long getUpdatedAt() { return updatedAt; }
+    }
+}
@@ -0,0 +1,42 @@
+package com.projectblackberry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Writes everything to the response and keeps a copy on the side
+public class TeeOutputStream extends OutputStream {
+    private final OutputStream out;
+    private final OutputStream copy;
+
+    public TeeOutputStream(OutputStream out, OutputStream copy) {
+        this.out = out;
+        this.copy = copy;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        copy.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        copy.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+        copy.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+        } finally {
+            copy.close();
+        }
+    }
+}
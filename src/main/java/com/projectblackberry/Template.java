@@ -0,0 +1,173 @@
+package com.projectblackberry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// A piece of markup compiled once into UTF-8 byte segments with typed slots in between:
+//
+//   Template.compile("<h1>{{week}}</h1><script>var w = '{{js:week}}';</script>", "week")
+//
+// Slots name one of the declared values (up to four, so rendering never allocates an argument
+// array) and say how it is escaped: {{x}} or {{text:x}} for element text and attribute values,
+// {{js:x}} inside a quoted script string (also safe inside an onclick="..." attribute), {{raw:x}}
+// for markup or numbers the server built itself. Every literal segment has a known length and
+// every escaped value can be measured without building it, so pages can be sized exactly.
+public final class Template {
+    public enum Kind { TEXT, JS, RAW }
+
+    private static final int MAX_VALUES = 4;
+    private static final String[] TEXT_ESCAPES = new String[0x80];
+    private static final String[] JS_ESCAPES = new String[0x80];
+
+    static {
+        TEXT_ESCAPES['&'] = "&amp;";
+        TEXT_ESCAPES['<'] = "&lt;";
+        TEXT_ESCAPES['>'] = "&gt;";
+        TEXT_ESCAPES['"'] = "&quot;";
+        TEXT_ESCAPES['\''] = "&#39;";
+        // nothing that could end the string, the script element or an attribute around it
+        for (char c : new char[] {'\'', '"', '<', '>', '&'}) {
+            JS_ESCAPES[c] = String.format("\\u%04x", (int) c);
+        }
+        for (char c = 0; c < 0x20; c++) {
+            JS_ESCAPES[c] = String.format("\\u%04x", (int) c);
+        }
+        JS_ESCAPES['\\'] = "\\\\";
+    }
+
+    private final byte[][] literals; // one more than there are slots
+    private final Kind[] kinds;
+    private final int[] values;      // which declared value each slot takes
+
+    private Template(byte[][] literals, Kind[] kinds, int[] values) {
+        this.literals = literals;
+        this.kinds = kinds;
+        this.values = values;
+    }
+
+    public static Template compile(String source, String... names) {
+        if (names.length > MAX_VALUES) throw new IllegalArgumentException("At most " + MAX_VALUES + " values per template");
+        List<byte[]> literals = new ArrayList<>();
+        List<Kind> kinds = new ArrayList<>();
+        List<Integer> values = new ArrayList<>();
+        int pos = 0;
+        while (true) {
+            int open = source.indexOf("{{", pos);
+            if (open < 0) break;
+            int close = source.indexOf("}}", open);
+            if (close < 0) throw new IllegalArgumentException("Unclosed slot at " + open);
+            literals.add(source.substring(pos, open).getBytes(StandardCharsets.UTF_8));
+            String slot = source.substring(open + 2, close).trim();
+            int colon = slot.indexOf(':');
+            Kind kind = colon < 0 ? Kind.TEXT : Kind.valueOf(slot.substring(0, colon).toUpperCase(Locale.ROOT));
+            String name = colon < 0 ? slot : slot.substring(colon + 1);
+            int index = Arrays.asList(names).indexOf(name);
+            if (index < 0) throw new IllegalArgumentException("Undeclared slot: " + name);
+            kinds.add(kind);
+            values.add(index);
+            pos = close + 2;
+        }
+        literals.add(source.substring(pos).getBytes(StandardCharsets.UTF_8));
+        return new Template(literals.toArray(new byte[0][]),
+                kinds.toArray(new Kind[0]),
+                values.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public void render(TemplateOutput out) {
+        render(out, null, null, null, null);
+    }
+
+    public void render(TemplateOutput out, String a) {
+        render(out, a, null, null, null);
+    }
+
+    public void render(TemplateOutput out, String a, String b) {
+        render(out, a, b, null, null);
+    }
+
+    public void render(TemplateOutput out, String a, String b, String c) {
+        render(out, a, b, c, null);
+    }
+
+    // null values render as nothing
+    public void render(TemplateOutput out, String a, String b, String c, String d) {
+        for (int i = 0; i < kinds.length; i++) {
+            out.write(literals[i]);
+            int v = values[i];
+            String value = v == 0 ? a : v == 1 ? b : v == 2 ? c : d;
+            if (value != null) {
+                out.write(value, kinds[i]);
+            }
+        }
+        out.write(literals[kinds.length]);
+    }
+
+    // UTF-8 length of the value once escaped, without building it
+    static int encodedLength(String value, Kind kind) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape = escape(c, kind);
+            if (escape != null) {
+                length += escape.length();
+            } else if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++; // unpaired, written as '?'
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    // escapes and encodes the value into dst at pos, which must have room for encodedLength(); returns the new pos
+    static int encode(String value, Kind kind, byte[] dst, int pos) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape = escape(c, kind);
+            if (escape != null) {
+                for (int j = 0; j < escape.length(); j++) {
+                    dst[pos++] = (byte) escape.charAt(j);
+                }
+            } else if (c < 0x80) {
+                dst[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                dst[pos++] = (byte) (0xC0 | (c >> 6));
+                dst[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                dst[pos++] = (byte) (0xF0 | (cp >> 18));
+                dst[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                dst[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                dst[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                dst[pos++] = '?';
+            } else {
+                dst[pos++] = (byte) (0xE0 | (c >> 12));
+                dst[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                dst[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return pos;
+    }
+
+    // the ASCII replacement for a character in this kind of slot, or null to write it as is
+    private static String escape(char c, Kind kind) {
+        if (kind == Kind.TEXT) return c < 0x80 ? TEXT_ESCAPES[c] : null;
+        if (kind == Kind.JS) {
+            if (c < 0x80) return JS_ESCAPES[c];
+            if (c == 0x2028) return "\\u2028"; // line terminators to a script, not to JSON
+            if (c == 0x2029) return "\\u2029";
+        }
+        return null;
+    }
+}
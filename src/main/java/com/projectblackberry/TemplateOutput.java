@@ -0,0 +1,155 @@
+package com.projectblackberry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// Where templates render to. A page is rendered twice when it goes into a byte[]: once into a
+// Measure to learn its exact size, then into Bytes of that size, so normally nothing is grown or
+// copied. Streamed pages go through a Stream, which buffers into a pooled byte[].
+public abstract class TemplateOutput {
+
+    public abstract void write(byte[] literal);
+
+    public abstract void write(String value, Template.Kind kind);
+
+    // lets the client start on what has been rendered so far; only Stream has anything to push
+    public void flush() {
+    }
+
+    // counts bytes, writes nothing
+    public static final class Measure extends TemplateOutput {
+        private int size;
+
+        @Override
+        public void write(byte[] literal) {
+            size += literal.length;
+        }
+
+        @Override
+        public void write(String value, Template.Kind kind) {
+            size += Template.encodedLength(value, kind);
+        }
+
+        public int getSize() { return size; }
+    }
+
+    // fills an array sized by a Measure pass over the same data. A task toggled between the two
+    // passes changes the size by a few bytes; then the array is grown, or trimmed at the end.
+    public static final class Bytes extends TemplateOutput {
+        private byte[] buf;
+        private int pos;
+
+        public Bytes(int size) {
+            this.buf = new byte[size];
+        }
+
+        @Override
+        public void write(byte[] literal) {
+            ensure(literal.length);
+            System.arraycopy(literal, 0, buf, pos, literal.length);
+            pos += literal.length;
+        }
+
+        @Override
+        public void write(String value, Template.Kind kind) {
+            ensure(Template.encodedLength(value, kind));
+            pos = Template.encode(value, kind, buf, pos);
+        }
+
+        private void ensure(int length) {
+            if (length > buf.length - pos) {
+                buf = Arrays.copyOf(buf, Math.max(pos + length, buf.length + buf.length / 8));
+            }
+        }
+
+        public byte[] toByteArray() {
+            return pos == buf.length ? buf : Arrays.copyOf(buf, pos);
+        }
+    }
+
+    // buffered writes to a response body; IOExceptions come out unchecked and are unwrapped by close()
+    public static final class Stream extends TemplateOutput implements AutoCloseable {
+        private static final int BUFFER_SIZE = 8192;
+        private static final ArrayBlockingQueue<byte[]> POOL = new ArrayBlockingQueue<>(64);
+
+        private final OutputStream out;
+        private byte[] buf;
+        private int pos;
+
+        public Stream(OutputStream out) {
+            this.out = out;
+            byte[] pooled = POOL.poll();
+            this.buf = pooled != null ? pooled : new byte[BUFFER_SIZE];
+        }
+
+        @Override
+        public void write(byte[] literal) {
+            if (literal.length > buf.length - pos) {
+                flushBuffer();
+                if (literal.length > buf.length) {
+                    writeThrough(literal, literal.length);
+                    return;
+                }
+            }
+            System.arraycopy(literal, 0, buf, pos, literal.length);
+            pos += literal.length;
+        }
+
+        @Override
+        public void write(String value, Template.Kind kind) {
+            int length = Template.encodedLength(value, kind);
+            if (length > buf.length - pos) {
+                flushBuffer();
+                if (length > buf.length) {
+                    byte[] big = new byte[length];
+                    Template.encode(value, kind, big, 0);
+                    writeThrough(big, length);
+                    return;
+                }
+            }
+            pos = Template.encode(value, kind, buf, pos);
+        }
+
+        @Override
+        public void flush() {
+            flushBuffer();
+            try {
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void flushBuffer() {
+            if (pos > 0) {
+                writeThrough(buf, pos);
+                pos = 0;
+            }
+        }
+
+        private void writeThrough(byte[] bytes, int length) {
+            try {
+                out.write(bytes, 0, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (buf == null) return;
+            try {
+                flushBuffer();
+                out.close();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                POOL.offer(buf);
+                buf = null;
+            }
+        }
+    }
+}
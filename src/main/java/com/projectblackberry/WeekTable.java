@@ -0,0 +1,128 @@
+package com.projectblackberry;
+
+import java.util.Arrays;
+
+// Open-addressing hash table keyed by week (WeekUtils.key, year * 100 + week), so a week has one
+// entry however it is spelled and a range of weeks can be visited in order. Linear probing with
+// backward-shift deletion, so there are no tombstones; 0 is never a week and marks a free slot.
+// Not thread-safe: the owner locks around it.
+final class WeekTable<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    interface Visitor<V> {
+        void visit(int week, V value);
+    }
+
+    WeekTable(int expectedSize) {
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize * 2 - 1)) << 1);
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int week) {
+        for (int i = slot(week); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == week) return (V) values[i];
+        }
+        return null;
+    }
+
+    // returns the value it replaced, if any
+    @SuppressWarnings("unchecked")
+    V put(int week, V value) {
+        if (week == 0) throw new IllegalArgumentException("0 is not a week");
+        int i = slot(week);
+        for (; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == week) {
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        keys[i] = week;
+        values[i] = value;
+        if (++size > keys.length / 2) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(int week) {
+        int i = slot(week);
+        while (keys[i] != week) {
+            if (keys[i] == 0) return null;
+            i = (i + 1) & mask;
+        }
+        V removed = (V) values[i];
+        // pull later entries of the same probe run back into the gap, so lookups never stop early
+        int gap = i;
+        for (int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = 0;
+        values[gap] = null;
+        size--;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // entries with from <= week <= to, oldest week first. A short range probes each week in it;
+    // a long one walks the table and sorts what it finds.
+    @SuppressWarnings("unchecked")
+    void forEachInRange(int from, int to, Visitor<? super V> visitor) {
+        if (from > to || size == 0) return;
+        if ((long) to - from < keys.length) {
+            for (int week = from; week <= to; week++) {
+                if (week == 0) continue;
+                V value = get(week);
+                if (value != null) visitor.visit(week, value);
+            }
+            return;
+        }
+        int[] found = new int[size];
+        int count = 0;
+        for (int key : keys) {
+            if (key != 0 && key >= from && key <= to) found[count++] = key;
+        }
+        Arrays.sort(found, 0, count);
+        for (int i = 0; i < count; i++) {
+            visitor.visit(found[i], get(found[i]));
+        }
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0) continue;
+            int j = slot(oldKeys[i]);
+            while (keys[j] != 0) j = (j + 1) & mask;
+            keys[j] = oldKeys[i];
+            values[j] = oldValues[i];
+        }
+    }
+
+    // weeks of one year are consecutive ints; the multiply spreads them over the table
+    private int slot(int week) {
+        int h = week * 0x9e3779b9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -1,17 +1,119 @@
 package com.projectblackberry;
 
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.temporal.WeekFields;
 import java.util.Locale;
 
 public class WeekUtils {
     private static final WeekFields WEEK_FIELDS = WeekFields.of(Locale.getDefault());
-    
+    private static volatile CurrentWeek current;
+
+    // the week we are in, worked out again only once it is over
+    private static final class CurrentWeek {
+        final int key;
+        final String id;
+        final long endsAt; // epoch millis
+
+        CurrentWeek(LocalDate today) {
+            this.key = key(today);
+            this.id = weekId(key);
+            LocalDate next = today.with(WEEK_FIELDS.dayOfWeek(), 1).plusWeeks(1);
+            this.endsAt = next.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+    }
+
     public static String getCurrentWeekId() {
-        LocalDate now = LocalDate.now();
-        int year = now.get(WEEK_FIELDS.weekBasedYear());
-        int week = now.get(WEEK_FIELDS.weekOfWeekBasedYear());
-        return String.format("%d-W%d", year, week);
+        return currentWeek().id;
+    }
+
+    public static int getCurrentWeek() {
+        return currentWeek().key;
+    }
+
+    private static CurrentWeek currentWeek() {
+        CurrentWeek week = current;
+        if (week == null || System.currentTimeMillis() >= week.endsAt) {
+            week = new CurrentWeek(LocalDate.now()); // racing threads build the same thing
+            current = week;
+        }
+        return week;
+    }
+
+    // "2025-W7" -> 202507: small, needs no hashing, and orders like the weeks themselves.
+    // 0 unless weekId is <year>-W<1 to 53, one or two digits>, so 0 never names a week.
+    public static int key(String weekId) {
+        if (weekId == null) return 0;
+        int length = weekId.length();
+        if ((length == 7 || length == 8) && weekId.charAt(4) == '-' && weekId.charAt(5) == 'W') {
+            // the usual four digit year, unrolled
+            int year = digit(weekId, 0) * 1000 + digit(weekId, 1) * 100 + digit(weekId, 2) * 10 + digit(weekId, 3);
+            int week = length == 7 ? digit(weekId, 6) : digit(weekId, 6) * 10 + digit(weekId, 7);
+            return year > 0 && week >= 1 && week <= 53 ? year * 100 + week : 0;
+        }
+        int year = 0;
+        int i = 0;
+        for (; i < length && i < 7; i++) {
+            char c = weekId.charAt(i);
+            if (c == '-') break;
+            if (c < '0' || c > '9') return 0;
+            year = year * 10 + (c - '0');
+        }
+        int weekDigits = length - i - 2;
+        if (i == 0 || year == 0 || weekDigits < 1 || weekDigits > 2 || weekId.charAt(i) != '-' || weekId.charAt(i + 1) != 'W') {
+            return 0;
+        }
+        int week = 0;
+        for (i += 2; i < length; i++) {
+            char c = weekId.charAt(i);
+            if (c < '0' || c > '9') return 0;
+            week = week * 10 + (c - '0');
+        }
+        return week >= 1 && week <= 53 ? year * 100 + week : 0;
+    }
+
+    // the one spelling every index and file uses ("2025-W01" -> "2025-W1"), or null if weekId
+    // names no week; week ids from requests and file names go through this first
+    public static String normalize(String weekId) {
+        int key = key(weekId);
+        return key != 0 ? weekId(key) : null;
+    }
+
+    // 0-9, or a negative number big enough to make any sum it is part of negative
+    private static int digit(String s, int i) {
+        int d = s.charAt(i) - '0';
+        return d >= 0 && d <= 9 ? d : -100_000;
+    }
+
+    public static int key(LocalDate date) {
+        return date.get(WEEK_FIELDS.weekBasedYear()) * 100 + date.get(WEEK_FIELDS.weekOfWeekBasedYear());
+    }
+
+    // 202507 -> "2025-W7"
+    public static String weekId(int key) {
+        return key / 100 + "-W" + key % 100;
+    }
+
+    // the week a date falls in, e.g. "2025-W1"
+    public static String weekId(LocalDate date) {
+        return weekId(key(date));
+    }
+
+    // first day of the week ("2025-W1" and "2025-W01" alike), or null if the year has no such week
+    public static LocalDate weekStart(String weekId) {
+        int key = key(weekId);
+        if (key == 0) return null;
+        int year = key / 100;
+        int week = key % 100;
+        try {
+            LocalDate start = LocalDate.of(year, 7, 1)
+                    .with(WEEK_FIELDS.weekOfWeekBasedYear(), week)
+                    .with(WEEK_FIELDS.dayOfWeek(), 1);
+            // week 53 of a 52-week year lands in the next year
+            return start.get(WEEK_FIELDS.weekBasedYear()) == year ? start : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
     }
     
     public static String formatWeekId(String weekId) {
@@ -26,4 +128,3 @@ public class WeekUtils {
         return weekId;
     }
 }
-
@@ -1,29 +1,66 @@
 package com.projectblackberry.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
-import java.util.ArrayList;
+import java.time.LocalDate;
 import java.util.List;
 
+@JsonPropertyOrder({"date", "tasks", "plannedTime"})
 public class DayChecklist {
-    private String date;
-    private List<TaskItem> tasks;
-    private String plannedTime; // e.g., "3h"
+    private final String date;
+    private final LocalDate localDate; // parsed from date once, null if it isn't a date
+    private final TaskBlock tasks;
+    private final String plannedTime; // e.g., "3h"
+    private final int plannedMinutes; // parsed from plannedTime once, not stored
 
+    public DayChecklist(String date, List<TaskItem> tasks, String plannedTime) {
+        this(date, TaskBlock.copyOf(tasks), plannedTime);
+    }
+
+    private DayChecklist(String date, TaskBlock tasks, String plannedTime) {
+        this.date = TaskBlock.intern(date);
+        this.localDate = parseDate(date);
+        this.tasks = tasks;
+        this.plannedTime = plannedTime != null ? TaskBlock.intern(plannedTime) : "";
+        this.plannedMinutes = TimeParser.toMinutes(this.plannedTime);
+    }
+
+    // straight into the day's block, without a TaskItem per task on the way
     @JsonCreator
-    public DayChecklist(
+    private static DayChecklist fromJson(
             @JsonProperty("date") String date,
-            @JsonProperty("tasks") List<TaskItem> tasks,
+            @JsonProperty("tasks") List<TaskBlock.Row> tasks,
             @JsonProperty("plannedTime") String plannedTime) {
-        this.date = date;
-        this.tasks = tasks != null ? tasks : new ArrayList<>();
-        this.plannedTime = plannedTime != null ? plannedTime : "";
+        return new DayChecklist(date, TaskBlock.fromRows(tasks), plannedTime);
+    }
+
+    // "2025-12-29", also without leading zeros; null if it isn't a date
+    public static LocalDate parseDate(String text) {
+        if (text == null) return null;
+        String[] parts = text.split("-");
+        if (parts.length != 3) return null;
+        try {
+            return LocalDate.of(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+        } catch (RuntimeException e) {
+            return null;
+        }
     }
 
     // Getters
     public String getDate() { return date; }
+    @JsonIgnore
+    public LocalDate getLocalDate() { return localDate; }
     public List<TaskItem> getTasks() { return tasks; }
     public String getPlannedTime() { return plannedTime; }
-}
+    @JsonIgnore
+    public int getPlannedMinutes() { return plannedMinutes; }
 
+    // the task with this id, or null; looks at the ids alone, without making a TaskItem per task
+    public TaskItem getTask(String id) {
+        int index = tasks.indexOf(id);
+        return index >= 0 ? tasks.get(index) : null;
+    }
+}
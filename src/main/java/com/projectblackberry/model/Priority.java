@@ -0,0 +1,28 @@
+package com.projectblackberry.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.Locale;
+
+public enum Priority {
+    LOW, MEDIUM, HIGH, CRITICAL;
+
+    private static final Priority[] VALUES = values();
+
+    // plans spell these in any case; missing or unknown ones read as MEDIUM, the old default.
+    // TaskItem keeps the spelling itself, so saving a week doesn't rewrite it.
+    @JsonCreator
+    public static Priority of(String text) {
+        if (text == null) return MEDIUM;
+        switch (text.trim().toUpperCase(Locale.ROOT)) {
+            case "LOW": return LOW;
+            case "HIGH": return HIGH;
+            case "CRITICAL": return CRITICAL;
+            default: return MEDIUM;
+        }
+    }
+
+    static Priority ofOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
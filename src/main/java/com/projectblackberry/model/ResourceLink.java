@@ -4,18 +4,19 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class ResourceLink {
-    private String title;
-    private String url;
-    private String category;
+    // deduplicated through TaskBlock.intern: the same links come back week after week
+    private final String title;
+    private final String url;
+    private final String category;
 
     @JsonCreator
     public ResourceLink(
             @JsonProperty("title") String title,
             @JsonProperty("url") String url,
             @JsonProperty("category") String category) {
-        this.title = title;
-        this.url = url;
-        this.category = category != null ? category : "General";
+        this.title = TaskBlock.intern(title);
+        this.url = TaskBlock.intern(url);
+        this.category = category != null ? TaskBlock.intern(category) : "General";
     }
 
     // Getters
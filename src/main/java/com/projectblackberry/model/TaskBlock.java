@@ -0,0 +1,158 @@
+package com.projectblackberry.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// A day's tasks as parallel arrays, one slot per task, instead of an object per task. As a List
+// it hands out TaskItems, which are views of a slot made when asked for. The strings repeat from
+// day to day and week to week (ids, times, most descriptions), so they go through intern() and
+// years of history share one copy of each.
+final class TaskBlock extends AbstractList<TaskItem> implements RandomAccess {
+    private static final String[] POOL = new String[1 << 14];
+
+    private final String[] ids;
+    private final String[] descriptions;
+    private final String[] estimatedTimes;       // e.g., "90m", "120m"
+    private final int[] estimatedMinutes;        // parsed from estimatedTimes once, not stored
+    private final byte[] priorities;             // Priority ordinals
+    private String[] priorityTexts;              // as the plan spelled it, where that isn't the Priority's name; null until a task needs it
+    private final AtomicIntegerArray completed;  // 0 or 1; toggled by request threads, read by the writer thread
+    private final AtomicLongArray updatedAt;     // epoch millis of the last completion change, 0 if never changed
+    private final AtomicLongArray changeVersions; // WeeklyChecklist version of the last change in this run, not stored
+
+    // how a task reads from JSON or Smile; only lives until the day's block is filled
+    static final class Row {
+        final String id;
+        final String description;
+        final boolean completed;
+        final String estimatedTime;
+        final String priority;
+        final long updatedAt;
+
+        @JsonCreator
+        Row(@JsonProperty("id") String id,
+            @JsonProperty("description") String description,
+            @JsonProperty("completed") Boolean completed,
+            @JsonProperty("estimatedTime") String estimatedTime,
+            @JsonProperty("priority") String priority,
+            @JsonProperty("updatedAt") Long updatedAt) {
+            this.id = id;
+            this.description = description;
+            this.completed = completed != null ? completed : false;
+            this.estimatedTime = estimatedTime;
+            this.priority = priority;
+            this.updatedAt = updatedAt != null ? updatedAt : 0;
+        }
+    }
+
+    TaskBlock(int size) {
+        this.ids = new String[size];
+        this.descriptions = new String[size];
+        this.estimatedTimes = new String[size];
+        this.estimatedMinutes = new int[size];
+        this.priorities = new byte[size];
+        this.completed = new AtomicIntegerArray(size);
+        this.updatedAt = new AtomicLongArray(size);
+        this.changeVersions = new AtomicLongArray(size);
+    }
+
+    static TaskBlock fromRows(List<Row> rows) {
+        TaskBlock block = new TaskBlock(rows != null ? rows.size() : 0);
+        for (int i = 0; i < block.size(); i++) {
+            Row row = rows.get(i);
+            block.set(i, row.id, row.description, row.completed, row.estimatedTime, row.priority, row.updatedAt);
+        }
+        return block;
+    }
+
+    static TaskBlock copyOf(List<TaskItem> tasks) {
+        TaskBlock block = new TaskBlock(tasks != null ? tasks.size() : 0);
+        for (int i = 0; i < block.size(); i++) {
+            TaskItem task = tasks.get(i);
+            block.set(i, task.getId(), task.getDescription(), task.isCompleted(), task.getEstimatedTime(),
+                    task.getPriorityText(), task.getUpdatedAt());
+            block.changeVersions.set(i, task.getChangeVersion());
+        }
+        return block;
+    }
+
+    // only while the block is being filled, before anyone else can see it
+    void set(int i, String id, String description, boolean completed, String estimatedTime, String priority, long updatedAt) {
+        String time = estimatedTime != null ? estimatedTime : "";
+        ids[i] = intern(id);
+        descriptions[i] = intern(description);
+        estimatedTimes[i] = intern(time);
+        estimatedMinutes[i] = TimeParser.toMinutes(time);
+        Priority parsed = Priority.of(priority);
+        priorities[i] = (byte) parsed.ordinal();
+        // "high" or "urgent" is written back as it was read, not as HIGH or MEDIUM
+        String text = priority != null && !priority.equals(parsed.name()) ? intern(priority) : null;
+        if (text != null && priorityTexts == null) priorityTexts = new String[ids.length];
+        if (priorityTexts != null) priorityTexts[i] = text;
+        this.completed.set(i, completed ? 1 : 0);
+        this.updatedAt.set(i, updatedAt);
+    }
+
+    // Best-effort dedup through a fixed table, one string per slot; String.intern() costs several
+    // times more on the load path and grows with every string it has seen. A string that finds its
+    // slot taken by another is kept as it is and takes the slot over. Unsynchronized on purpose: a
+    // lost race only costs a duplicate.
+    static String intern(String s) {
+        if (s == null) return null;
+        int h = s.hashCode();
+        int i = (h ^ (h >>> 16)) & (POOL.length - 1);
+        String pooled = POOL[i];
+        if (s.equals(pooled)) return pooled;
+        POOL[i] = s;
+        return s;
+    }
+
+    // the slot holding this id, or -1
+    int indexOf(String id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (Objects.equals(ids[i], id)) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public TaskItem get(int index) {
+        Objects.checkIndex(index, ids.length);
+        return new TaskItem(this, index);
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    // Slots
+    String id(int i) { return ids[i]; }
+    String description(int i) { return descriptions[i]; }
+    String estimatedTime(int i) { return estimatedTimes[i]; }
+    int estimatedMinutes(int i) { return estimatedMinutes[i]; }
+    Priority priority(int i) { return Priority.ofOrdinal(priorities[i]); }
+    String priorityText(int i) {
+        String text = priorityTexts != null ? priorityTexts[i] : null;
+        return text != null ? text : priority(i).name();
+    }
+    boolean completed(int i) { return completed.get(i) != 0; }
+    long updatedAt(int i) { return updatedAt.get(i); }
+    long changeVersion(int i) { return changeVersions.get(i); }
+
+    void setCompleted(int i, boolean value) { completed.set(i, value ? 1 : 0); }
+    void setUpdatedAt(int i, long value) { updatedAt.set(i, value); }
+    void setChangeVersion(int i, long value) { changeVersions.set(i, value); }
+
+    // true if this actually flipped the state
+    boolean changeCompleted(int i, boolean value) {
+        return completed.compareAndSet(i, value ? 0 : 1, value ? 1 : 0);
+    }
+}
@@ -1,14 +1,16 @@
 package com.projectblackberry.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-public class TaskItem {
-    private String id;
-    private String description;
-    private boolean completed;
-    private String estimatedTime; // e.g., "90m", "120m"
-    private String priority; // HIGH, CRITICAL, MEDIUM, LOW
+// One task of a day, a view of its slot in the day's TaskBlock: two views of the same slot see and
+// make the same changes. The public constructor makes a task of its own, for building days by hand;
+// a DayChecklist copies such tasks into its block.
+public final class TaskItem {
+    private final TaskBlock block;
+    private final int index;
 
     @JsonCreator
     public TaskItem(
@@ -17,21 +19,44 @@ public class TaskItem {
             @JsonProperty("completed") Boolean completed,
             @JsonProperty("estimatedTime") String estimatedTime,
             @JsonProperty("priority") String priority) {
-        this.id = id;
-        this.description = description;
-        this.completed = completed != null ? completed : false;
-        this.estimatedTime = estimatedTime != null ? estimatedTime : "";
-        this.priority = priority != null ? priority : "MEDIUM";
+        this(new TaskBlock(1), 0);
+        block.set(0, id, description, completed != null ? completed : false, estimatedTime, priority, 0);
+    }
+
+    TaskItem(TaskBlock block, int index) {
+        this.block = block;
+        this.index = index;
     }
 
     // Getters
-    public String getId() { return id; }
-    public String getDescription() { return description; }
-    public boolean isCompleted() { return completed; }
-    public String getEstimatedTime() { return estimatedTime; }
-    public String getPriority() { return priority; }
+    public String getId() { return block.id(index); }
+    public String getDescription() { return block.description(index); }
+    public boolean isCompleted() { return block.completed(index); }
+    public String getEstimatedTime() { return block.estimatedTime(index); }
+    @JsonIgnore
+    public Priority getPriority() { return block.priority(index); }
+    // what is stored: the plan's own spelling, which getPriority() may have read as MEDIUM
+    @JsonProperty("priority")
+    public String getPriorityText() { return block.priorityText(index); }
+    @JsonIgnore
+    public int getEstimatedMinutes() { return block.estimatedMinutes(index); }
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public long getUpdatedAt() { return block.updatedAt(index); }
+    @JsonIgnore
+    public long getChangeVersion() { return block.changeVersion(index); }
 
     // Setters
-    public void setCompleted(boolean completed) { this.completed = completed; }
-}
+    public void setCompleted(boolean completed) { block.setCompleted(index, completed); }
+    public void setUpdatedAt(long updatedAt) { block.setUpdatedAt(index, updatedAt); }
 
+    // records when the completion last changed (wall clock, for merging) and in which version (for sync deltas)
+    public void stamp(long updatedAt, long changeVersion) {
+        block.setUpdatedAt(index, updatedAt);
+        block.setChangeVersion(index, changeVersion);
+    }
+
+    // true if this actually flipped the state; lets derived counters apply each change exactly once
+    public boolean changeCompleted(boolean completed) {
+        return block.changeCompleted(index, completed);
+    }
+}
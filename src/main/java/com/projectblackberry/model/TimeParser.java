@@ -0,0 +1,38 @@
+package com.projectblackberry.model;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Turns the free-form durations of the weekly plans ("90m", "4h 15m", "1.5h", "2h30", "45") into
+// minutes. Runs once when a task or day is deserialized; everything downstream works on the ints.
+public class TimeParser {
+    private static final Pattern PART = Pattern.compile(
+            "(\\d+(?:[.,]\\d+)?)\\s*(hours?|hrs?|h|minutes?|mins?|m)?");
+
+    // 0 for blank or unreadable values, so they simply don't count towards any total
+    public static int toMinutes(String text) {
+        if (text == null || text.isBlank()) return 0;
+        Matcher m = PART.matcher(text.toLowerCase(Locale.ROOT));
+        double minutes = 0;
+        while (m.find()) {
+            double value = Double.parseDouble(m.group(1).replace(',', '.'));
+            String unit = m.group(2);
+            if (unit != null && unit.startsWith("h")) {
+                minutes += value * 60;
+            } else {
+                // a bare number is minutes, both on its own and after hours ("2h30")
+                minutes += value;
+            }
+        }
+        return (int) Math.round(minutes);
+    }
+
+    // 255 -> "4h 15m", for the stats pages
+    public static String format(long minutes) {
+        if (minutes < 60) return minutes + "m";
+        long hours = minutes / 60;
+        long rest = minutes % 60;
+        return rest == 0 ? hours + "h" : hours + "h " + rest + "m";
+    }
+}
@@ -1,17 +1,34 @@
 package com.projectblackberry.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class WeeklyChecklist {
-    private String weekId;
-    private Map<String, DayChecklist> days;
-    private List<ResourceLink> resources;
+    // process-wide so a replaced checklist never reuses the version of the one it replaced
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    // days in date order: sorted once here, so pages just walk them
+    private static final Comparator<Map.Entry<String, DayChecklist>> BY_DATE = Comparator
+            .comparing((Map.Entry<String, DayChecklist> e) -> e.getValue() != null ? e.getValue().getLocalDate() : null,
+                    Comparator.nullsLast(Comparator.<LocalDate>naturalOrder()))
+            .thenComparing(Map.Entry.comparingByKey());
+
+    private final String weekId;
+    private final Map<String, DayChecklist> days;
+    private final List<ResourceLink> resources;
+    private volatile long version = VERSIONS.incrementAndGet();
+    private final long createdVersion = version;
+    private volatile long lastModified = System.currentTimeMillis();
 
     @JsonCreator
     public WeeklyChecklist(
@@ -19,13 +36,47 @@ public class WeeklyChecklist {
             @JsonProperty("days") Map<String, DayChecklist> days,
             @JsonProperty("resources") List<ResourceLink> resources) {
         this.weekId = weekId;
-        this.days = days != null ? days : new HashMap<>();
-        this.resources = resources != null ? resources : new ArrayList<>();
+        this.days = sortByDate(days);
+        this.resources = resources != null ? Collections.unmodifiableList(new ArrayList<>(resources)) : List.of();
+    }
+
+    private static Map<String, DayChecklist> sortByDate(Map<String, DayChecklist> days) {
+        if (days == null || days.isEmpty()) return Map.of();
+        List<Map.Entry<String, DayChecklist>> entries = new ArrayList<>(days.entrySet());
+        entries.sort(BY_DATE);
+        Map<String, DayChecklist> sorted = new LinkedHashMap<>();
+        for (Map.Entry<String, DayChecklist> entry : entries) {
+            sorted.put(entry.getKey(), entry.getValue());
+        }
+        return Collections.unmodifiableMap(sorted);
     }
 
     // Getters
     public String getWeekId() { return weekId; }
     public Map<String, DayChecklist> getDays() { return days; }
     public List<ResourceLink> getResources() { return resources; }
+
+    // bumped on every in-place change so cached renders of this week go stale
+    @JsonIgnore
+    public long getVersion() { return version; }
+    @JsonIgnore
+    public long getLastModified() { return lastModified; }
+    // this object (not the week) came to be at this version; sync clients that synced before it need everything
+    @JsonIgnore
+    public long getCreatedVersion() { return createdVersion; }
+
+    // versions double as the sequence numbers task changes are stamped with
+    public static long nextVersion() {
+        return VERSIONS.incrementAndGet();
+    }
+
+    public static long currentVersion() {
+        return VERSIONS.get();
+    }
+
+    public void markModified() {
+        lastModified = System.currentTimeMillis();
+        version = nextVersion();
+    }
 }
 
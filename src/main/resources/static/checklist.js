@@ -0,0 +1,157 @@
+// Checkbox state for the weekly checklist page. The page as rendered is the server's state.
+// Changes are written to localStorage right away, queued, and sent to /sync, which answers with
+// whatever changed on the server since the page's token (another device, say). /events pushes
+// changes as they happen, so the rows update without a reload.
+//
+// The page sets WEEK, syncToken and lastEventId in a small inline script before this one.
+var SYNC_URL = '/sync?week=' + encodeURIComponent(WEEK);
+var QUEUE_KEY = 'sync-queue-' + WEEK;
+var EVENTS_URL = '/events?week=' + encodeURIComponent(WEEK);
+var syncing = false, syncAgain = false;
+
+function readQueue() {
+    try { return JSON.parse(localStorage.getItem(QUEUE_KEY)) || []; } catch (e) { return []; }
+}
+
+function queueChange(taskId, completed, time) {
+    var queue = readQueue(), kept = [];
+    for (var i = 0; i < queue.length; i++) if (queue[i].k !== taskId) kept.push(queue[i]);
+    kept.push({k: taskId, c: completed ? 1 : 0, t: time});
+    localStorage.setItem(QUEUE_KEY, JSON.stringify(kept));
+}
+
+function loadTaskStates() {
+    var boxes = document.querySelectorAll('input[type="checkbox"]');
+    if (localStorage.getItem(QUEUE_KEY) === null) {
+        // first visit since sync existed: hand over what only this phone knew, as the oldest possible change
+        for (var i = 0; i < boxes.length; i++) {
+            var saved = localStorage.getItem(boxes[i].id);
+            if (saved !== null && (saved === 'true') !== boxes[i].checked) queueChange(boxes[i].id, saved === 'true', 0);
+        }
+        if (localStorage.getItem(QUEUE_KEY) === null) localStorage.setItem(QUEUE_KEY, '[]');
+    }
+    // changes not yet confirmed by the server still show
+    var queue = readQueue();
+    for (var j = 0; j < queue.length; j++) {
+        var cb = document.getElementById(queue[j].k);
+        if (cb) showTaskState(cb, queue[j].c === 1);
+    }
+    sync();
+    listen();
+}
+
+function saveTaskState(taskId, completed) {
+    localStorage.setItem(taskId, completed ? 'true' : 'false');
+    queueChange(taskId, completed, new Date().getTime());
+    showTaskState(document.getElementById(taskId), completed);
+    sync();
+}
+
+function sync() {
+    if (syncing) { syncAgain = true; return; }
+    syncing = true;
+    var sent = readQueue();
+    var xhr = new XMLHttpRequest();
+    xhr.open('POST', SYNC_URL, true);
+    xhr.setRequestHeader('Content-Type', 'application/json');
+    xhr.onreadystatechange = function() {
+        if (xhr.readyState !== 4) return;
+        syncing = false;
+        if (xhr.status === 200) {
+            var response = JSON.parse(xhr.responseText);
+            // forget what the server has seen; changes made while the request was out stay queued
+            var queue = readQueue(), left = [];
+            for (var i = 0; i < queue.length; i++) {
+                var seen = false;
+                for (var j = 0; j < sent.length; j++) if (sent[j].k === queue[i].k && sent[j].t === queue[i].t) seen = true;
+                if (!seen) left.push(queue[i]);
+            }
+            localStorage.setItem(QUEUE_KEY, JSON.stringify(left));
+            syncToken = response.token;
+            applyServerChanges(response);
+        }
+        if (syncAgain) { syncAgain = false; sync(); }
+    };
+    xhr.send(JSON.stringify({since: syncToken, changes: sent}));
+}
+
+function applyServerChanges(response) {
+    var changes = response.changes;
+    // a reset that doesn't match the tasks on this page means the week was re-imported
+    if (response.reset && changes.length !== document.querySelectorAll('input[type="checkbox"]').length) {
+        location.reload();
+        return;
+    }
+    var queue = readQueue();
+    for (var i = 0; i < changes.length; i++) {
+        var cb = document.getElementById(changes[i].k);
+        if (!cb) { location.reload(); return; }
+        // a newer local change is still on its way; the next sync settles it
+        var pending = false;
+        for (var j = 0; j < queue.length; j++) if (queue[j].k === changes[i].k) pending = true;
+        if (pending) continue;
+        localStorage.setItem(changes[i].k, changes[i].c === 1 ? 'true' : 'false');
+        showTaskState(cb, changes[i].c === 1);
+    }
+}
+
+function handleEvent(type, data) {
+    if (type === 'reload') location.reload();
+    else if (type === 'sync') sync();
+    else if (type === 'task') applyServerChanges({reset: 0, changes: [data]});
+    else if (type === 'rows') patchRows(data.rows);
+}
+
+// swaps in re-rendered task rows, keeping any local change that is still queued
+function patchRows(rows) {
+    var queue = readQueue();
+    for (var i = 0; i < rows.length; i++) {
+        var cb = document.getElementById(rows[i].k);
+        if (!cb) { location.reload(); return; }
+        var holder = document.createElement('div');
+        holder.innerHTML = rows[i].html;
+        var row = holder.getElementsByTagName('div')[0];
+        taskRow(cb).parentNode.replaceChild(row, taskRow(cb));
+        var fresh = document.getElementById(rows[i].k);
+        localStorage.setItem(rows[i].k, fresh.checked ? 'true' : 'false');
+        for (var j = 0; j < queue.length; j++) if (queue[j].k === rows[i].k) showTaskState(fresh, queue[j].c === 1);
+    }
+}
+
+function listen() {
+    if (!window.EventSource) { poll(); return; }
+    var source = new EventSource(EVENTS_URL + '&after=' + lastEventId);
+    var types = ['task', 'rows', 'reload', 'sync'];
+    for (var i = 0; i < types.length; i++) {
+        (function(type) {
+            source.addEventListener(type, function(e) {
+                if (e.lastEventId) lastEventId = e.lastEventId;
+                handleEvent(type, JSON.parse(e.data));
+            }, false);
+        })(types[i]);
+    }
+    // EventSource reconnects by itself; only if it gives up for good fall back to polling
+    source.onerror = function() {
+        if (source.readyState === 2) poll();
+    };
+}
+
+// long-poll fallback: the server answers when something happens, or empty after ~25s
+function poll() {
+    var xhr = new XMLHttpRequest();
+    xhr.open('GET', EVENTS_URL + '&poll=1&after=' + lastEventId, true);
+    xhr.onreadystatechange = function() {
+        if (xhr.readyState !== 4) return;
+        if (xhr.status === 200) {
+            var response = JSON.parse(xhr.responseText);
+            lastEventId = response.id;
+            for (var i = 0; i < response.events.length; i++) handleEvent(response.events[i].type, response.events[i].data);
+            setTimeout(poll, 0);
+        } else {
+            setTimeout(poll, 5000);
+        }
+    };
+    xhr.send();
+}
+
+window.onload = loadTaskStates;
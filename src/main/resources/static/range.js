@@ -0,0 +1,25 @@
+// Checkboxes on the multi-week page (/checklist?from=...&to=...) go straight to /tasks. A box
+// that the server didn't take flips back: /tasks answers 200 with a status per key, so a task it
+// couldn't find shows up there rather than in the HTTP status.
+function saveTaskState(taskId, completed) {
+    var cb = document.getElementById(taskId);
+    showTaskState(cb, completed);
+    var xhr = new XMLHttpRequest();
+    xhr.open('POST', '/tasks?key=' + encodeURIComponent(taskId) + '&completed=' + completed, true);
+    xhr.onreadystatechange = function() {
+        if (xhr.readyState !== 4) return;
+        if (xhr.status === 200 && accepted(xhr.responseText)) localStorage.setItem(taskId, completed ? 'true' : 'false');
+        else showTaskState(cb, !completed);
+    };
+    xhr.send();
+}
+
+function accepted(responseText) {
+    try {
+        var results = JSON.parse(responseText).results || [];
+        for (var i = 0; i < results.length; i++) if (results[i].status !== 'ok') return false;
+        return results.length > 0;
+    } catch (e) {
+        return false;
+    }
+}
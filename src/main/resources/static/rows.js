@@ -0,0 +1,14 @@
+// Task rows, shared by the week page and the range page
+function taskRow(cb) {
+    var node = cb.parentNode;
+    while (node && (' ' + node.className + ' ').indexOf(' task ') < 0) node = node.parentNode;
+    return node;
+}
+
+function showTaskState(cb, completed) {
+    cb.checked = completed;
+    var row = taskRow(cb);
+    if (row) {
+        if (completed) row.classList.add('completed'); else row.classList.remove('completed');
+    }
+}
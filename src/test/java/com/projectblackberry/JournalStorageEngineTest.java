@@ -0,0 +1,107 @@
+package com.projectblackberry;
+
+import com.projectblackberry.model.DayChecklist;
+import com.projectblackberry.model.TaskItem;
+import com.projectblackberry.model.WeeklyChecklist;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A crash is a copy of the journal taken while the engine that wrote it is still open: nothing
+// has been compacted into snapshots, so a second engine over the copy has to replay it.
+class JournalStorageEngineTest {
+    private static final String WEEK = "2025-W1";
+    private static final String DAY = "2025-12-29";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recoverReplaysPutsAndTaskChanges() throws IOException {
+        Path journal = crashAfterToggle();
+
+        JournalStorageEngine recovered = open(journal);
+        try {
+            TaskItem task = task(recovered.load(WEEK), "1");
+            assertTrue(task.isCompleted());
+            assertEquals(1_700_000_000_000L, task.getUpdatedAt());
+            assertFalse(task(recovered.load(WEEK), "2").isCompleted());
+            // replayed into snapshots at startup, leaving an empty journal
+            assertTrue(Files.exists(journal.resolveSibling(WEEK + ".json")));
+            assertEquals(0, Files.size(journal));
+        } finally {
+            recovered.close();
+        }
+    }
+
+    @Test
+    void recoverDropsATornTail() throws IOException {
+        Path journal = crashAfterToggle();
+        // the header of a record whose body never made it to disk
+        Files.write(journal, new byte[] {0, 0, 3, (byte) 0xE8, 1, 2, 3, 4, 1, 42}, StandardOpenOption.APPEND);
+
+        JournalStorageEngine recovered = open(journal);
+        try {
+            assertTrue(task(recovered.load(WEEK), "1").isCompleted());
+        } finally {
+            recovered.close();
+        }
+    }
+
+    @Test
+    void recoverStopsAtARecordWithABadChecksum() throws IOException {
+        Path journal = crashAfterToggle();
+        byte[] bytes = Files.readAllBytes(journal);
+        bytes[bytes.length - 1] ^= 1; // inside the task record, the last one written
+        Files.write(journal, bytes);
+
+        JournalStorageEngine recovered = open(journal);
+        try {
+            WeeklyChecklist week = recovered.load(WEEK);
+            assertNotNull(week);
+            assertFalse(task(week, "1").isCompleted());
+        } finally {
+            recovered.close();
+        }
+    }
+
+    // a week put and one task toggled; returns a copy of the journal in a data directory of its own
+    private Path crashAfterToggle() throws IOException {
+        Path written = Files.createDirectories(dir.resolve("written"));
+        JournalStorageEngine engine = new JournalStorageEngine(new FileStorageEngine(written, ChecklistCodec.JSON, false),
+                ChecklistCodec.JSON, written.resolve("journal.log"), Long.MAX_VALUE, 3600);
+        try {
+            WeeklyChecklist week = new WeeklyChecklist(WEEK, Map.of(DAY, new DayChecklist(DAY, List.of(
+                    new TaskItem("1", "CS 301 Algorithms Ch5", false, "90m", "HIGH"),
+                    new TaskItem("2", "Spring Boot Project Milestone", false, "2h", "MEDIUM")), "3h")), List.of());
+            engine.save(week);
+            engine.saveTaskChanges(week, List.of(new StorageEngine.TaskChange(DAY, "1", true, 1_700_000_000_000L)));
+
+            Path copy = Files.createDirectories(dir.resolve("recovered")).resolve("journal.log");
+            Files.copy(written.resolve("journal.log"), copy);
+            return copy;
+        } finally {
+            engine.close();
+        }
+    }
+
+    private static JournalStorageEngine open(Path journal) throws IOException {
+        return new JournalStorageEngine(new FileStorageEngine(journal.getParent(), ChecklistCodec.JSON, false),
+                ChecklistCodec.JSON, journal, Long.MAX_VALUE, 3600);
+    }
+
+    private static TaskItem task(WeeklyChecklist week, String id) {
+        return week.getDays().get(DAY).getTask(id);
+    }
+}
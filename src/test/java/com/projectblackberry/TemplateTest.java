@@ -0,0 +1,69 @@
+package com.projectblackberry;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TemplateTest {
+
+    @Test
+    void textSlotsEscapeMarkupAndQuotes() {
+        Template template = Template.compile("<a title=\"{{x}}\">{{text:x}}</a>", "x");
+        assertEquals("<a title=\"&lt;b&gt; &amp; &quot;q&quot; &#39;s&#39;\">&lt;b&gt; &amp; &quot;q&quot; &#39;s&#39;</a>",
+                render(template, "<b> & \"q\" 's'"));
+    }
+
+    @Test
+    void jsSlotsCannotEndTheStringOrTheScript() {
+        Template template = Template.compile("<script>var w = '{{js:x}}';</script>", "x");
+        assertEquals("<script>var w = '\\u0027);alert(1)//\\u003c/script\\u003e\\\\\\u000a\\u2028';</script>",
+                render(template, "');alert(1)//</script>\\\n\u2028"));
+    }
+
+    @Test
+    void rawSlotsAreWrittenAsTheyAre() {
+        Template template = Template.compile("<p>{{raw:x}}</p>", "x");
+        assertEquals("<p><b>bold</b></p>", render(template, "<b>bold</b>"));
+    }
+
+    @Test
+    void nonAsciiIsEncodedAsUtf8AndMeasuredExactly() {
+        Template template = Template.compile("{{x}}|{{js:x}}", "x");
+        String value = "Größe 😀 \ud800";
+        assertEquals("Größe 😀 ?|Größe 😀 ?", render(template, value));
+        TemplateOutput.Measure size = new TemplateOutput.Measure();
+        template.render(size, value);
+        assertEquals(render(template, value).getBytes(StandardCharsets.UTF_8).length, size.getSize());
+    }
+
+    @Test
+    void bytesGrowWhenTheValueChangedAfterMeasuring() {
+        Template template = Template.compile("<i>{{x}}</i>", "x");
+        TemplateOutput.Measure size = new TemplateOutput.Measure();
+        template.render(size, "a");
+        TemplateOutput.Bytes bytes = new TemplateOutput.Bytes(size.getSize());
+        template.render(bytes, "a & b");
+        assertEquals("<i>a &amp; b</i>", new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void nullValuesRenderAsNothing() {
+        assertEquals("[]", render(Template.compile("[{{x}}]", "x"), null));
+    }
+
+    @Test
+    void undeclaredSlotsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Template.compile("{{y}}", "x"));
+    }
+
+    private static String render(Template template, String value) {
+        TemplateOutput.Measure size = new TemplateOutput.Measure();
+        template.render(size, value);
+        TemplateOutput.Bytes bytes = new TemplateOutput.Bytes(size.getSize());
+        template.render(bytes, value);
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,97 @@
+package com.projectblackberry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WeekTableTest {
+
+    @Test
+    void putReplacesAndReturnsThePreviousValue() {
+        WeekTable<String> table = new WeekTable<>(4);
+        assertNull(table.put(202501, "a"));
+        assertEquals("a", table.put(202501, "b"));
+        assertEquals("b", table.get(202501));
+        assertEquals(1, table.size());
+        assertNull(table.get(202502));
+    }
+
+    @Test
+    void zeroIsNotAWeek() {
+        assertThrows(IllegalArgumentException.class, () -> new WeekTable<String>(4).put(0, "a"));
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        WeekTable<Integer> table = new WeekTable<>(1);
+        for (int year = 2000; year < 2020; year++) {
+            for (int week = 1; week <= 52; week++) {
+                table.put(year * 100 + week, week);
+            }
+        }
+        assertEquals(20 * 52, table.size());
+        for (int year = 2000; year < 2020; year++) {
+            for (int week = 1; week <= 52; week++) {
+                assertEquals(week, table.get(year * 100 + week));
+            }
+        }
+    }
+
+    // removing from the middle of probe runs must not hide the entries behind them
+    @Test
+    void removeKeepsEveryOtherEntryReachable() {
+        WeekTable<Integer> table = new WeekTable<>(16);
+        for (int week = 1; week <= 53; week++) {
+            table.put(202500 + week, week);
+        }
+        for (int week = 1; week <= 53; week += 2) {
+            assertEquals(week, table.remove(202500 + week));
+        }
+        assertNull(table.remove(202501));
+        assertEquals(26, table.size());
+        for (int week = 1; week <= 53; week++) {
+            assertEquals(week % 2 == 0 ? Integer.valueOf(week) : null, table.get(202500 + week));
+        }
+        for (int week = 1; week <= 53; week += 2) {
+            table.put(202500 + week, -week);
+        }
+        assertEquals(53, table.size());
+        assertEquals(-53, table.get(202553));
+    }
+
+    @Test
+    void shortRangesVisitWeeksInOrder() {
+        WeekTable<String> table = new WeekTable<>(8);
+        table.put(202503, "c");
+        table.put(202501, "a");
+        table.put(202510, "x");
+        table.put(202502, "b");
+        assertEquals(List.of("202501=a", "202502=b", "202503=c"), visit(table, 202501, 202505));
+        assertEquals(List.of(), visit(table, 202504, 202509));
+        assertEquals(List.of(), visit(table, 202505, 202501));
+    }
+
+    // wider than the table, so it is walked and sorted instead of probed week by week
+    @Test
+    void longRangesVisitWeeksInOrder() {
+        WeekTable<String> table = new WeekTable<>(8);
+        table.put(202652, "d");
+        table.put(199901, "out");
+        table.put(202001, "a");
+        table.put(202553, "c");
+        table.put(202110, "b");
+        table.put(203001, "out");
+        assertEquals(List.of("202001=a", "202110=b", "202553=c", "202652=d"), visit(table, 202001, 202652));
+    }
+
+    private static List<String> visit(WeekTable<String> table, int from, int to) {
+        List<String> seen = new ArrayList<>();
+        table.forEachInRange(from, to, (week, value) -> seen.add(week + "=" + value));
+        return seen;
+    }
+}
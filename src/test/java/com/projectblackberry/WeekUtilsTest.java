@@ -0,0 +1,44 @@
+package com.projectblackberry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WeekUtilsTest {
+
+    @Test
+    void keyReadsBothSpellingsOfAWeek() {
+        assertEquals(202501, WeekUtils.key("2025-W1"));
+        assertEquals(202501, WeekUtils.key("2025-W01"));
+        assertEquals(202552, WeekUtils.key("2025-W52"));
+        assertEquals(99907, WeekUtils.key("999-W7"));
+        assertEquals(1234510, WeekUtils.key("12345-W10"));
+        assertEquals(202653, WeekUtils.key("2026-W53"));
+    }
+
+    @Test
+    void keyIsZeroForAnythingThatIsNotAWeek() {
+        for (String id : new String[] {null, "", "2025", "2025-W", "2025-W123", "2025W1", "2025-X1",
+                "abcd-W1", "0000-W1", "2025-W1a", "-W1", "2025-w1", "20a5-W1", "2025-W-1",
+                "2025-W0", "2025-W00", "2025-W54", "2025-W99", "12345-W0", "12345-W00", "12345-W54"}) {
+            assertEquals(0, WeekUtils.key(id), id);
+        }
+    }
+
+    @Test
+    void keysOrderLikeTheWeeks() {
+        assertEquals(-1, Integer.signum(WeekUtils.key("2025-W9") - WeekUtils.key("2025-W10")));
+        assertEquals(-1, Integer.signum(WeekUtils.key("2024-W52") - WeekUtils.key("2025-W1")));
+    }
+
+    @Test
+    void normalizeDropsTheLeadingZero() {
+        assertEquals("2025-W1", WeekUtils.normalize("2025-W01"));
+        assertEquals("2025-W1", WeekUtils.normalize("2025-W1"));
+        assertEquals("2025-W10", WeekUtils.normalize("2025-W10"));
+        assertNull(WeekUtils.normalize("2025-W1<script>"));
+        assertNull(WeekUtils.normalize("2025-W00"));
+        assertNull(WeekUtils.normalize(null));
+    }
+}